@@ -1,12 +1,18 @@
 package be.vbgn.gradle.pluginupdates;
 
 import static be.vbgn.gradle.pluginupdates.TestUtil.writeFile;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
+import be.vbgn.gradle.pluginupdates.version.Version;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
 import org.gradle.testkit.runner.BuildResult;
 import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -46,6 +52,135 @@ public class PluginUpdatesPluginIntegrationTest extends AbstractIntegrationTest
         );
     }
 
+    @Test
+    public void applyProjectPluginsInBackground() throws Exception {
+        writeFile(buildFile, "plugins {\n"
+                + "id 'base'\n"
+                + "id 'org.gradle.hello-world' version '0.1'\n"
+                + "id 'be.vbgn.plugin-updates'\n"
+                + "}\n"
+                + "pluginUpdates {\n"
+                + "background = true\n"
+                + "}\n");
+        writeFile(settingsFile, "rootProject.name = 'test-project'");
+        BuildResult buildResult = GradleRunner.create()
+                .withPluginClasspath()
+                .withProjectDir(testProjectDir.getRoot())
+                .withGradleVersion(gradleVersion)
+                .forwardOutput()
+                .withArguments("clean")
+                .build();
+
+        assertOutputContainsOneOf(buildResult,
+                "Plugin is outdated in root project 'test-project': id 'org.gradle.hello-world' version '[0.1 -> 0.2]'",
+                "Plugin is outdated in root project 'test-project': org.gradle:gradle-hello-world-plugin:[0.1 -> 0.2]"
+        );
+    }
+
+    @Test
+    public void applyProjectPluginsUpToDate() throws Exception {
+        writeFile(buildFile, "plugins {\n"
+                + "id 'base'\n"
+                + "id 'org.gradle.hello-world' version '0.1'\n"
+                + "id 'be.vbgn.plugin-updates'\n"
+                + "}\n"
+                + "pluginUpdates {\n"
+                + "checkInterval = java.time.Duration.ofHours(1)\n"
+                + "}\n");
+        writeFile(settingsFile, "rootProject.name = 'test-project'");
+        GradleRunner gradleRunner = GradleRunner.create()
+                .withPluginClasspath()
+                .withProjectDir(testProjectDir.getRoot())
+                .withGradleVersion(gradleVersion)
+                .forwardOutput()
+                .withArguments("help");
+
+        BuildResult firstBuildResult = gradleRunner.build();
+        assertEquals(TaskOutcome.SUCCESS, firstBuildResult.task(":checkGradlePluginUpdates").getOutcome());
+
+        BuildResult buildResult = gradleRunner.build();
+        assertEquals(TaskOutcome.UP_TO_DATE, buildResult.task(":checkGradlePluginUpdates").getOutcome());
+        assertOutputContainsOneOf(buildResult,
+                "Plugin is outdated in root project 'test-project': id 'org.gradle.hello-world' version '[0.1 -> 0.2]'",
+                "Plugin is outdated in root project 'test-project': org.gradle:gradle-hello-world-plugin:[0.1 -> 0.2]"
+        );
+    }
+
+    @Test
+    public void excludedUpdateCheckDoesNotReportEarlierResults() throws Exception {
+        writeFile(buildFile, "plugins {\n"
+                + "id 'base'\n"
+                + "id 'org.gradle.hello-world' version '0.1'\n"
+                + "id 'be.vbgn.plugin-updates'\n"
+                + "}\n");
+        writeFile(settingsFile, "rootProject.name = 'test-project'");
+        GradleRunner gradleRunner = GradleRunner.create()
+                .withPluginClasspath()
+                .withProjectDir(testProjectDir.getRoot())
+                .withGradleVersion(gradleVersion)
+                .forwardOutput();
+
+        BuildResult firstBuildResult = gradleRunner.withArguments("help").build();
+        assertOutputContains(firstBuildResult, "Plugin is outdated in root project 'test-project'");
+
+        BuildResult buildResult = gradleRunner.withArguments("help", "-x", "checkGradlePluginUpdates").build();
+        assertOutputNotContains(buildResult, "Plugin is outdated");
+    }
+
+    @Test
+    public void applyProjectPluginsWithConfigurationCache() throws Exception {
+        assumeTrue("Gradle version is at least 6.6.0",
+                Version.parse(gradleVersion).compareTo(Version.parse("6.6")) >= 0);
+        writeFile(buildFile, "plugins {\n"
+                + "id 'base'\n"
+                + "id 'org.gradle.hello-world' version '0.1'\n"
+                + "id 'be.vbgn.plugin-updates'\n"
+                + "}\n");
+        writeFile(settingsFile, "rootProject.name = 'test-project'");
+        GradleRunner gradleRunner = GradleRunner.create()
+                .withPluginClasspath()
+                .withProjectDir(testProjectDir.getRoot())
+                .withGradleVersion(gradleVersion)
+                .forwardOutput()
+                .withArguments("help", "--configuration-cache");
+
+        gradleRunner.build();
+        BuildResult buildResult = gradleRunner.build();
+
+        assertTrue(buildResult.getOutput().contains("Reusing configuration cache."));
+        assertOutputContainsOneOf(buildResult,
+                "Plugin is outdated in root project 'test-project': id 'org.gradle.hello-world' version '[0.1 -> 0.2]'",
+                "Plugin is outdated in root project 'test-project': org.gradle:gradle-hello-world-plugin:[0.1 -> 0.2]"
+        );
+    }
+
+    @Test
+    public void configurationCacheReuseReportsSameUpdates() throws Exception {
+        assumeTrue("Gradle version is at least 6.6.0",
+                Version.parse(gradleVersion).compareTo(Version.parse("6.6")) >= 0);
+        writeFile(buildFile, "plugins {\n"
+                + "id 'base'\n"
+                + "id 'org.gradle.hello-world' version '0.1'\n"
+                + "id 'be.vbgn.plugin-updates'\n"
+                + "}\n");
+        writeFile(settingsFile, "rootProject.name = 'test-project'");
+        File reportFile = new File(testProjectDir.getRoot(), "build/plugin-updates/checkGradlePluginUpdates.txt");
+        GradleRunner gradleRunner = GradleRunner.create()
+                .withPluginClasspath()
+                .withProjectDir(testProjectDir.getRoot())
+                .withGradleVersion(gradleVersion)
+                .forwardOutput();
+
+        gradleRunner.withArguments("help").build();
+        String report = FileUtils.readFileToString(reportFile, StandardCharsets.UTF_8);
+
+        gradleRunner.withArguments("help", "--configuration-cache").build();
+        BuildResult buildResult = gradleRunner.withArguments("help", "--configuration-cache").build();
+
+        assertTrue(buildResult.getOutput().contains("Reusing configuration cache."));
+        assertEquals(report, FileUtils.readFileToString(reportFile, StandardCharsets.UTF_8));
+    }
+
     @Test
     public void applyProjectWithClassifiers() throws Exception {
         writeFile(buildFile, "buildscript {\n"
@@ -0,0 +1,121 @@
+package be.vbgn.gradle.pluginupdates.integration;
+
+import static be.vbgn.gradle.pluginupdates.TestUtil.writeFile;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the configuration work that the plugin adds to a build with many projects and tasks
+ * <p>
+ * Every task is wired to a single aggregate task, so every task has one finalizer, instead of one finalizer for every
+ * update check task of every project. Tasks that are not part of the build are not configured by the plugin.
+ * <p>
+ * The wiring does not depend on the gradle version, so this test only runs on one gradle version. It does not measure
+ * configuration time, because timings on shared build machines vary too much to assert on.
+ */
+public class ManyProjectsTaskWiringTest {
+
+    private static final String GRADLE_VERSION = "6.8.2";
+    private static final int PROJECTS = 50;
+    private static final int TASKS_PER_PROJECT = 40;
+
+    @Rule
+    public final TemporaryFolder testProjectDir = new TemporaryFolder();
+
+    private File createProject() throws IOException {
+        File projectDir = testProjectDir.newFolder("many-projects");
+        StringBuilder settings = new StringBuilder();
+        settings.append("buildscript {\n")
+                .append("repositories {\n")
+                .append("mavenLocal()\n")
+                .append("}\n")
+                .append("dependencies {\n")
+                .append("classpath \"be.vbgn.gradle:plugin-updates-plugin:${System.getProperty(\"pluginVersion\")}\"\n")
+                .append("}\n")
+                .append("}\n")
+                .append("apply plugin: be.vbgn.gradle.pluginupdates.PluginUpdatesPlugin\n")
+                .append("rootProject.name = 'many-projects'\n");
+        for (int i = 0; i < PROJECTS; i++) {
+            settings.append("include 'project").append(i).append("'\n");
+        }
+        writeFile(new File(projectDir, "settings.gradle"), settings.toString());
+        writeFile(new File(projectDir, "build.gradle"), "def configuredTasks = 0\n"
+                + "allprojects {\n"
+                + "apply plugin: 'base'\n"
+                + "(1.." + TASKS_PER_PROJECT + ").each { i -> tasks.register(\"task${i}\") { configuredTasks++ } }\n"
+                + "}\n"
+                + "gradle.taskGraph.whenReady { graph ->\n"
+                + "println \"Configured tasks: ${configuredTasks}\"\n"
+                + "println \"Tasks in graph: ${graph.allTasks.size()}\"\n"
+                + "def task = project(':project0').tasks.getByName('task1')\n"
+                + "println \"Finalizers of task1: ${task.finalizedBy.getDependencies(task).size()}\"\n"
+                + "}\n");
+        return projectDir;
+    }
+
+    private void createInitScript() throws IOException {
+        File gradleHome = new File(testProjectDir.getRoot(), "gradleHome");
+        gradleHome.mkdirs();
+        writeFile(new File(gradleHome, "init.gradle"), "buildscript {\n"
+                + "repositories {\n"
+                + "mavenLocal()\n"
+                + "}\n"
+                + "dependencies {\n"
+                + "classpath \"be.vbgn.gradle:plugin-updates-plugin:${System.getProperty(\"pluginVersion\")}\"\n"
+                + "}\n"
+                + "}\n"
+                + "apply plugin: be.vbgn.gradle.pluginupdates.PluginUpdatesPlugin\n");
+    }
+
+    private BuildResult build(File projectDir, String task) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir)
+                .withGradleVersion(GRADLE_VERSION)
+                .withTestKitDir(new File(testProjectDir.getRoot(), "gradleHome"))
+                .withArguments(task, "--dry-run")
+                .build();
+    }
+
+    private static void assertOutputContains(BuildResult buildResult, String message) {
+        assertTrue("Build output: \n '''" + buildResult.getOutput() + "'''\n does not contain " + message,
+                buildResult.getOutput().contains(message));
+    }
+
+    @Test
+    public void unusedTasksAreNotConfigured() throws IOException {
+        BuildResult buildResult = build(createProject(), "help");
+
+        assertOutputContains(buildResult, "Configured tasks: 0\n");
+    }
+
+    @Test
+    public void everyTaskHasOneFinalizer() throws IOException {
+        BuildResult buildResult = build(createProject(), ":project0:task1");
+
+        // Only the task itself is configured, the other tasks are registered but never created
+        assertOutputContains(buildResult, "Configured tasks: 1\n");
+        // The aggregate task, instead of the update check tasks of all projects
+        assertOutputContains(buildResult, "Finalizers of task1: 1\n");
+        // The task, the aggregate task and the update check task of every project
+        assertOutputContains(buildResult, "Tasks in graph: " + (1 + 1 + PROJECTS + 1) + "\n");
+    }
+
+    @Test
+    public void aggregateTasksOfOtherClassloadersAreNotFinalized() throws IOException {
+        // The plugin is loaded by the init script and by the settings script, in different classloaders
+        createInitScript();
+        BuildResult buildResult = build(createProject(), ":project0:task1");
+
+        // Each classloader has its own aggregate task, they do not finalize each other
+        assertOutputContains(buildResult, "Finalizers of task1: 2\n");
+        // The task, both aggregate tasks and both update check tasks of every project
+        assertOutputContains(buildResult, "Tasks in graph: " + (1 + 2 * (1 + PROJECTS + 1)) + "\n");
+    }
+}
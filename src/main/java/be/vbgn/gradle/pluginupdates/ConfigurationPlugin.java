@@ -3,8 +3,10 @@ package be.vbgn.gradle.pluginupdates;
 import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateBuilder;
 import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateCheckerBuilderConfiguration;
 import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateCheckerConfigurationImpl;
+import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateCheckerSettings;
 import java.io.IOException;
 import java.io.ObjectStreamException;
+import java.io.OptionalDataException;
 import java.io.Serializable;
 import javax.annotation.Nonnull;
 import org.gradle.api.Plugin;
@@ -52,12 +54,21 @@ public class ConfigurationPlugin implements Plugin<PluginAware>, Serializable {
     private void writeObject(java.io.ObjectOutputStream out)
             throws IOException {
         out.writeObject(configuration.getUpdateBuilder());
+        out.writeObject(configuration.getSettings());
 
     }
 
     private void readObject(java.io.ObjectInputStream in)
             throws IOException, ClassNotFoundException {
-        configuration = new UpdateCheckerConfigurationImpl((UpdateBuilder) in.readObject());
+        UpdateBuilder updateBuilder = (UpdateBuilder) in.readObject();
+        UpdateCheckerSettings settings;
+        try {
+            settings = (UpdateCheckerSettings) in.readObject();
+        } catch (OptionalDataException e) {
+            // Written by an older version of the plugin that does not have settings yet
+            settings = new UpdateCheckerSettings();
+        }
+        configuration = new UpdateCheckerConfigurationImpl(updateBuilder, settings);
 
     }
 
@@ -1,19 +1,16 @@
 package be.vbgn.gradle.pluginupdates;
 
-import be.vbgn.gradle.pluginupdates.update.formatter.DefaultUpdateFormatter;
-import be.vbgn.gradle.pluginupdates.update.formatter.PluginUpdateFormatter;
-import be.vbgn.gradle.pluginupdates.update.formatter.UpdateFormatter;
 import be.vbgn.gradle.pluginupdates.update.task.CheckUpdateTask;
-import java.util.UUID;
+import java.util.Set;
 import javax.annotation.Nonnull;
-import org.codehaus.groovy.runtime.MethodClosure;
-import org.gradle.BuildResult;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
 import org.gradle.api.plugins.PluginAware;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.util.GradleVersion;
@@ -27,8 +24,9 @@ public class PluginUpdatesPlugin implements Plugin<PluginAware> {
      * Gradle plugin ID of this plugin
      */
     public static final String PLUGIN_ID = "be.vbgn.plugin-updates";
+    private static final String TASK_NAME = "checkGradlePluginUpdates";
+    private static final String AGGREGATE_TASK_NAME = "checkAllGradlePluginUpdates";
     private static final Logger LOGGER = Logging.getLogger(PluginUpdatesPlugin.class);
-    private final MethodClosure buildFinishedCallback = new MethodClosure(this, "onBuildFinished");
 
     /**
      * {@inheritDoc}
@@ -74,9 +72,8 @@ public class PluginUpdatesPlugin implements Plugin<PluginAware> {
     public void apply(@Nonnull Project project) {
         Gradle gradle = project.getGradle();
         if (isOnline(gradle)) {
-            LOGGER.debug("Register buildFinished callback for single project");
-            configurePlugin(project);
-            project.getGradle().buildFinished(buildFinishedCallback.curry(project));
+            LOGGER.debug("Register update check for single project");
+            configurePlugin(project, true);
         }
     }
 
@@ -86,9 +83,8 @@ public class PluginUpdatesPlugin implements Plugin<PluginAware> {
     public void apply(@Nonnull Settings settings) {
         Gradle gradle = settings.getGradle();
         if (isOnline(gradle)) {
-            LOGGER.debug("Register buildFinished callback");
+            LOGGER.debug("Register update checks for all projects");
             configurePlugin(gradle);
-            gradle.buildFinished(buildFinishedCallback);
         }
     }
 
@@ -105,103 +101,134 @@ public class PluginUpdatesPlugin implements Plugin<PluginAware> {
             return;
         }
         if (isOnline(gradle)) {
-            LOGGER.debug("Register buildFinished callback");
+            LOGGER.debug("Register update checks for all projects");
             configurePlugin(gradle);
-            gradle.buildFinished(buildFinishedCallback);
         }
     }
 
-    /**
-     * Hook that runs when a build has finished.
-     * <p>
-     * This hooks is run for the cases in {@link #apply(Gradle)} and {@link #apply(Settings)}, where all projects are checked for updates
-     */
-    private void onBuildFinished(@Nonnull BuildResult buildResult) {
-        Gradle gradle = buildResult.getGradle();
-        Project rootProject = null;
-        try {
-            rootProject = gradle.getRootProject();
-        } catch (IllegalStateException e) {
-            LOGGER.debug("Could not get root project, skipping updates check. {}", e.getMessage());
-        }
-        if (rootProject != null) {
-            rootProject.getAllprojects()
-                    .stream()
-                    .filter(project -> {
-                        if (project.getPlugins().hasPlugin(PLUGIN_ID)) {
-                            LOGGER.debug("Project {} has the plugin applied. Skipping for global updates check.",
-                                    project);
-                            return false;
-                        }
-                        return true;
-                    })
-                    .forEach(this::runBuildscriptUpdateCheck);
-        }
-    }
-
-    /**
-     * Hook that runs when a build has finished.
-     * <p>
-     * This hooks is run for the case in {@link #apply(Project)}, where only the project on which the plugin is applied is checked for updates
-     *
-     * @param project The project on which the update check is run
-     */
-    private void onBuildFinished(@Nonnull Project project, @Nonnull BuildResult buildResult) {
-        runBuildscriptUpdateCheck(project);
-    }
-
     /**
      * Configures tasks used by all update checks
      *
      * @param gradle The gradle invocation to register the tasks for
      */
     private void configurePlugin(@Nonnull Gradle gradle) {
-        gradle.allprojects(this::configurePlugin);
+        gradle.allprojects(project -> configurePlugin(project, false));
     }
 
     /**
      * Configures tasks used for update checks in a single project
      *
-     * @param project The project to create the tasks for
+     * @param project       The project to create the tasks for
+     * @param projectPlugin Whether the plugin is applied to the project itself, instead of to all projects
      */
-    private void configurePlugin(@Nonnull Project project) {
-        final String TASK_NAME = "checkGradlePluginUpdates_" + UUID.randomUUID().toString();
+    private void configurePlugin(@Nonnull Project project, boolean projectPlugin) {
         TaskProvider<CheckUpdateTask> updateTaskTaskProvider = project.getTasks()
-                .register(TASK_NAME, CheckUpdateTask.class, updateTask -> {
+                .register(updateTaskName(project), CheckUpdateTask.class, updateTask -> {
                     updateTask.getConfiguration()
                             .set(project.getBuildscript().getConfigurations().named("classpath"));
                     updateTask.setDescription("Checks for updates for your Gradle plugins");
                 });
-        project.getRootProject().allprojects(p -> {
+        aggregateTask(project.getRootProject()).configure(task -> task.finalizedBy(updateTaskTaskProvider));
+        project.getGradle().projectsEvaluated(gradle -> {
+            CheckUpdateTask updateTask;
+            try {
+                updateTask = updateTaskTaskProvider.get();
+            } catch (Throwable e) {
+                LOGGER.error("Plugin update check could not be configured.", e);
+                return;
+            }
+            if (!projectPlugin && project.getPlugins().hasPlugin(PLUGIN_ID)) {
+                LOGGER.debug("Project {} has the plugin applied. Skipping for global updates check.", project);
+            } else {
+                updateTask.reportWhenBuildFinished();
+            }
+        });
+        project.getGradle().getTaskGraph().whenReady(taskGraph -> {
+            // The buildscript classpath and the configuration are known now. They are only captured for update checks
+            // that will run, because capturing resolves the buildscript classpath.
+            CheckUpdateTask updateTask = updateTaskTaskProvider.get();
+            if (!taskGraph.hasTask(updateTask)) {
+                LOGGER.debug("Update check of {} does not run in this build.", project);
+                return;
+            }
+            try {
+                updateTask.captureRequest();
+            } catch (Throwable e) {
+                LOGGER.error("Plugin update check could not be configured.", e);
+                return;
+            }
+            try {
+                if (updateTask.isBackground()) {
+                    updateTask.startInBackground();
+                }
+            } catch (Throwable e) {
+                LOGGER.error("Plugin versions could not be fetched in the background.", e);
+            }
+        });
+    }
+
+
+    /**
+     * Obtains the task that runs the update checks of all projects after any other task has run
+     * <p>
+     * The task is created only once per build, so every task of every project is wired to a single task, instead of
+     * to the update check task of every project.
+     *
+     * @param rootProject The root project of the build
+     * @return The task that is finalized by all update check tasks
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private static TaskProvider<Task> aggregateTask(@Nonnull Project rootProject) {
+        // The plugin can be loaded multiple times in different classloaders (init script, settings and buildscript)
+        // Every classloader has its own aggregate task, because classes can not be shared between them
+        String extraPropertyName = "pluginUpdatesAggregateTask_" + Integer
+                .toHexString(System.identityHashCode(PluginUpdatesPlugin.class.getClassLoader()));
+        ExtraPropertiesExtension extraProperties = rootProject.getExtensions().getExtraProperties();
+        if (extraProperties.has(extraPropertyName)) {
+            return (TaskProvider<Task>) extraProperties.get(extraPropertyName);
+        }
+        String aggregateTaskName = uniqueTaskName(rootProject, AGGREGATE_TASK_NAME);
+        TaskProvider<Task> aggregateTaskProvider = rootProject.getTasks()
+                .register(aggregateTaskName, task -> {
+                    task.setDescription("Checks for updates for your Gradle plugins in all projects");
+                });
+        extraProperties.set(extraPropertyName, aggregateTaskProvider);
+        rootProject.allprojects(p -> {
             p.getTasks().configureEach(task -> {
+                // Aggregate tasks of other classloaders would otherwise finalize each other
+                if (p == rootProject && task.getName().startsWith(AGGREGATE_TASK_NAME)) {
+                    return;
+                }
                 if (!task.getClass().getPackage().getName().equals(CheckUpdateTask.class.getPackage().getName())) {
-                    task.finalizedBy(updateTaskTaskProvider);
+                    task.finalizedBy(aggregateTaskProvider);
                 }
             });
         });
+        return aggregateTaskProvider;
     }
 
-
     /**
-     * Runs an update check and prints out outdated plugin versions
+     * Finds a name for the update check task that is not used yet in the project
+     * <p>
+     * The name is stable between builds, so the task can be up-to-date or loaded from the build cache.
      *
-     * @param project The project to run an update check for
+     * @param project The project to create the task in
+     * @return Name for the update check task
      */
-    private void runBuildscriptUpdateCheck(@Nonnull Project project) {
-        try {
-            UpdateFormatter updateFormatter = new PluginUpdateFormatter(new DefaultUpdateFormatter());
+    @Nonnull
+    private static String updateTaskName(@Nonnull Project project) {
+        return uniqueTaskName(project, TASK_NAME);
+    }
 
-            project.getTasks().withType(CheckUpdateTask.class).forEach(checkUpdateTask -> {
-                checkUpdateTask.getUpdates().get().forEach(update -> {
-                    if (update.isOutdated()) {
-                        LOGGER.warn("Plugin is outdated in {}: {}", project, updateFormatter.format(update));
-                    }
-                });
-            });
-        } catch (Throwable e) {
-            LOGGER.error("Plugin update check failed.", e);
+    @Nonnull
+    private static String uniqueTaskName(@Nonnull Project project, @Nonnull String baseName) {
+        Set<String> taskNames = project.getTasks().getNames();
+        String taskName = baseName;
+        for (int i = 2; taskNames.contains(taskName); i++) {
+            taskName = baseName + i;
         }
-
+        return taskName;
     }
 
 }
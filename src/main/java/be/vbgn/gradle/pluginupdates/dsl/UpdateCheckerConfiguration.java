@@ -1,5 +1,6 @@
 package be.vbgn.gradle.pluginupdates.dsl;
 
+import java.time.Duration;
 import javax.annotation.Nonnull;
 import org.gradle.api.Action;
 
@@ -9,6 +10,21 @@ import org.gradle.api.Action;
  * <pre>
  *  apply plugin: be.vbgn.gradle.pluginupdates.ConfigurationPlugin
  *  pluginUpdates {
+ *      // Fetch the versions of up to 4 plugins at the same time
+ *      parallelism = 4
+ *
+ *      // Remember the versions that have been found for 12 hours
+ *      resolvedVersionsCacheTime = java.time.Duration.ofHours(12)
+ *
+ *      // Remember plugins that could not be resolved for 2 days
+ *      invalidResolvesCacheTime = java.time.Duration.ofDays(2)
+ *
+ *      // Fetch plugin versions while the build is running instead of after it has finished
+ *      background = true
+ *
+ *      // Only check for updates once every 4 hours, as long as the plugins and the policy do not change
+ *      checkInterval = java.time.Duration.ofHours(4)
+ *
  *      policy {
  *          // Change the group and name of a plugin. Any version of the eu.xenit.gradle:alfresco-docker-plugin will be
  *          // suggested as a replacement of any version of eu.xenit.gradle:xenit-gradle-plugins
@@ -46,4 +62,89 @@ public interface UpdateCheckerConfiguration {
     default void policy(@Nonnull Action<? super UpdatePolicy> policy) {
         policy.execute(getPolicy());
     }
+
+    /**
+     * Maximum number of plugins whose versions are fetched from the repositories at the same time
+     * <p>
+     * Only versions that are read from maven metadata are fetched in parallel, resolving with gradle always happens
+     * one plugin after the other.
+     * <p>
+     * Defaults to 1, which fetches versions of all plugins one after the other
+     */
+    int getParallelism();
+
+    /**
+     * Sets the maximum number of plugins whose versions are fetched from the repositories at the same time
+     *
+     * @param parallelism Number of plugins that are fetched at the same time, must be at least 1
+     */
+    void setParallelism(int parallelism);
+
+    /**
+     * How long versions that have been found in the repositories are remembered across builds
+     * <p>
+     * Defaults to zero, so versions are looked up in the repositories on every build.
+     * Running gradle with <code>--refresh-dependencies</code> also looks up all versions again.
+     */
+    @Nonnull
+    Duration getResolvedVersionsCacheTime();
+
+    /**
+     * Sets how long versions that have been found in the repositories are remembered across builds
+     *
+     * @param resolvedVersionsCacheTime Time to remember found versions, zero to disable
+     */
+    void setResolvedVersionsCacheTime(@Nonnull Duration resolvedVersionsCacheTime);
+
+    /**
+     * How long plugins that could not be resolved are remembered across builds
+     * <p>
+     * Defaults to 1 day. When set to zero, plugins that could not be resolved are only remembered during a build.
+     */
+    @Nonnull
+    Duration getInvalidResolvesCacheTime();
+
+    /**
+     * Sets how long plugins that could not be resolved are remembered across builds
+     *
+     * @param invalidResolvesCacheTime Time to remember plugins that could not be resolved, zero to only remember them
+     *                                 during a build
+     */
+    void setInvalidResolvesCacheTime(@Nonnull Duration invalidResolvesCacheTime);
+
+    /**
+     * Whether versions of plugins are fetched in the background while the build is running
+     * <p>
+     * Defaults to false, which fetches versions when the update check runs, after all other tasks have finished.
+     * When enabled, versions are fetched from maven metadata as soon as all projects have been evaluated. The update
+     * check itself still runs after all other tasks have finished, but does not have to wait for the repositories.
+     * Versions that can only be resolved by gradle are not fetched in the background.
+     */
+    boolean isBackground();
+
+    /**
+     * Sets whether versions of plugins are fetched in the background while the build is running
+     *
+     * @param background True to fetch versions while the build is running
+     */
+    void setBackground(boolean background);
+
+    /**
+     * Minimum time between two update checks of the same plugins with the same policy
+     * <p>
+     * Within this interval, the results of the previous update check are shown again without looking up any versions.
+     * Changing the plugins, the repositories or the policy always checks for updates again, as does running gradle
+     * with <code>--refresh-dependencies</code>.
+     * <p>
+     * Defaults to zero, which checks for updates on every build.
+     */
+    @Nonnull
+    Duration getCheckInterval();
+
+    /**
+     * Sets the minimum time between two update checks of the same plugins with the same policy
+     *
+     * @param checkInterval Minimum time between update checks, zero to check on every build
+     */
+    void setCheckInterval(@Nonnull Duration checkInterval);
 }
@@ -13,6 +13,7 @@ import org.gradle.api.artifacts.ModuleIdentifier;
  * <ul>
  * <li>specify modules/dependencies that are ignored with {@link #ignore(String)} and {@link #ignore(Map)}
  * <li>specify modules that have been renamed with {@link #rename(String)} and {@link #rename(Map)}
+ * <li>ignore pre-release versions with {@link #ignoreUnstable()}
  * </ul>
  */
 public interface UpdatePolicy extends Serializable {
@@ -132,4 +133,21 @@ public interface UpdatePolicy extends Serializable {
         return rename(Util.createModuleIdentifier(moduleNotation));
     }
 
+    /**
+     * Ignores all versions that are not a final release
+     * <p>
+     * Versions with a pre-release qualifier, like <code>-SNAPSHOT</code>, <code>-alpha1</code>, <code>-beta</code>,
+     * <code>-M2</code> or <code>-RC1</code>, are removed from the available versions of a plugin before updates are
+     * looked up. When only pre-release versions match an update, that update is not reported.
+     * <p>
+     * Example:
+     * <pre>
+     * // Only suggest final releases as updates
+     * ignoreUnstable()
+     * </pre>
+     *
+     * @see be.vbgn.gradle.pluginupdates.version.QualifierType
+     */
+    void ignoreUnstable();
+
 }
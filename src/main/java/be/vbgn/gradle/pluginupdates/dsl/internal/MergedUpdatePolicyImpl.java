@@ -38,6 +38,11 @@ public class MergedUpdatePolicyImpl implements UpdateBuilder {
         return backingFinder;
     }
 
+    @Override
+    public boolean isIgnoreUnstable() {
+        return builders.stream().anyMatch(UpdateBuilder::isIgnoreUnstable);
+    }
+
     @Nonnull
     @Override
     public IgnoreSpec ignore(@Nonnull ModuleIdentifier module) {
@@ -55,4 +60,9 @@ public class MergedUpdatePolicyImpl implements UpdateBuilder {
     public RenameSpec rename(@Nonnull ModuleIdentifier module) {
         return builders.get(0).rename(module);
     }
+
+    @Override
+    public void ignoreUnstable() {
+        builders.get(0).ignoreUnstable();
+    }
 }
@@ -11,4 +11,10 @@ public interface UpdateBuilder extends UpdatePolicy {
 
     @Nonnull
     UpdateFinder buildUpdateFinder(@Nonnull UpdateFinder backingFinder);
+
+    /**
+     * @return Whether versions that are not a final release are removed before updates are looked up
+     * @see #ignoreUnstable()
+     */
+    boolean isIgnoreUnstable();
 }
@@ -5,4 +5,6 @@ import be.vbgn.gradle.pluginupdates.dsl.UpdateCheckerConfiguration;
 public interface UpdateCheckerBuilderConfiguration extends UpdateCheckerConfiguration {
     UpdateBuilder getUpdateBuilder();
 
+    UpdateCheckerSettings getSettings();
+
 }
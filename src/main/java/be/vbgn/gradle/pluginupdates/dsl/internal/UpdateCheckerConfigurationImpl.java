@@ -3,6 +3,7 @@ package be.vbgn.gradle.pluginupdates.dsl.internal;
 import java.io.IOException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
 import javax.annotation.Nonnull;
@@ -11,6 +12,8 @@ public class UpdateCheckerConfigurationImpl implements UpdateCheckerBuilderConfi
 
     private UpdateBuilder policy = new UpdatePolicyImpl();
 
+    private UpdateCheckerSettings settings = new UpdateCheckerSettings();
+
     public UpdateCheckerConfigurationImpl() {
 
     }
@@ -19,45 +22,120 @@ public class UpdateCheckerConfigurationImpl implements UpdateCheckerBuilderConfi
         this.policy = policy;
     }
 
+    public UpdateCheckerConfigurationImpl(UpdateBuilder policy, UpdateCheckerSettings settings) {
+        this.policy = policy;
+        this.settings = settings;
+    }
+
     @Nonnull
     public UpdateBuilder getPolicy() {
         return policy;
     }
 
+    @Override
+    public int getParallelism() {
+        Integer parallelism = settings.getParallelism();
+        return parallelism == null ? UpdateCheckerSettings.DEFAULT_PARALLELISM : parallelism;
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        settings.setParallelism(parallelism);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getResolvedVersionsCacheTime() {
+        Duration resolvedVersionsCacheTime = settings.getResolvedVersionsCacheTime();
+        return resolvedVersionsCacheTime == null ? UpdateCheckerSettings.DEFAULT_RESOLVED_VERSIONS_CACHE_TIME
+                : resolvedVersionsCacheTime;
+    }
+
+    @Override
+    public void setResolvedVersionsCacheTime(@Nonnull Duration resolvedVersionsCacheTime) {
+        settings.setResolvedVersionsCacheTime(resolvedVersionsCacheTime);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getInvalidResolvesCacheTime() {
+        Duration invalidResolvesCacheTime = settings.getInvalidResolvesCacheTime();
+        return invalidResolvesCacheTime == null ? UpdateCheckerSettings.DEFAULT_INVALID_RESOLVES_CACHE_TIME
+                : invalidResolvesCacheTime;
+    }
+
+    @Override
+    public void setInvalidResolvesCacheTime(@Nonnull Duration invalidResolvesCacheTime) {
+        settings.setInvalidResolvesCacheTime(invalidResolvesCacheTime);
+    }
+
+    @Override
+    public boolean isBackground() {
+        return Boolean.TRUE.equals(settings.getBackground());
+    }
+
+    @Override
+    public void setBackground(boolean background) {
+        settings.setBackground(background);
+    }
+
+    @Nonnull
+    @Override
+    public Duration getCheckInterval() {
+        Duration checkInterval = settings.getCheckInterval();
+        return checkInterval == null ? UpdateCheckerSettings.DEFAULT_CHECK_INTERVAL : checkInterval;
+    }
+
+    @Override
+    public void setCheckInterval(@Nonnull Duration checkInterval) {
+        settings.setCheckInterval(checkInterval);
+    }
+
     @Nonnull
     public static UpdateCheckerBuilderConfiguration merge(
             @Nonnull UpdateCheckerBuilderConfiguration... configurations) {
         UpdateCheckerConfigurationImpl configuration = new UpdateCheckerConfigurationImpl();
 
         List<UpdateBuilder> updateBuilders = new LinkedList<>();
+        List<UpdateCheckerSettings> settings = new LinkedList<>();
 
         for (UpdateCheckerBuilderConfiguration updateCheckerConfiguration : configurations) {
             updateBuilders.add(updateCheckerConfiguration.getUpdateBuilder());
+            settings.add(updateCheckerConfiguration.getSettings());
         }
 
         configuration.policy = new MergedUpdatePolicyImpl(updateBuilders);
+        configuration.settings = UpdateCheckerSettings.merge(settings);
         return configuration;
     }
 
     private void writeObject(java.io.ObjectOutputStream out)
             throws IOException {
         out.writeObject(policy);
+        out.writeObject(settings);
 
     }
 
     private void readObject(java.io.ObjectInputStream in)
             throws IOException, ClassNotFoundException {
         policy = (UpdateBuilder) in.readObject();
+        settings = (UpdateCheckerSettings) in.readObject();
 
     }
 
     private void readObjectNoData()
             throws ObjectStreamException {
         policy = new UpdatePolicyImpl();
+        settings = new UpdateCheckerSettings();
     }
 
     @Override
     public UpdateBuilder getUpdateBuilder() {
         return getPolicy();
     }
+
+    @Override
+    public UpdateCheckerSettings getSettings() {
+        return settings;
+    }
 }
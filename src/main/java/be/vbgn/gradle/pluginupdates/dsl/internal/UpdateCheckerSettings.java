@@ -0,0 +1,126 @@
+package be.vbgn.gradle.pluginupdates.dsl.internal;
+
+import java.io.Serializable;
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Settings of the update checker that are not part of the update policy
+ * <p>
+ * Settings that have not been configured are {@code null}, so a more specific configuration only overrides the
+ * settings that it actually configures when configurations are merged.
+ */
+public class UpdateCheckerSettings implements Serializable {
+
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    public static final Duration DEFAULT_RESOLVED_VERSIONS_CACHE_TIME = Duration.ZERO;
+
+    public static final Duration DEFAULT_INVALID_RESOLVES_CACHE_TIME = Duration.ofDays(1);
+
+    public static final Duration DEFAULT_CHECK_INTERVAL = Duration.ZERO;
+
+    @Nullable
+    private Integer parallelism = null;
+
+    @Nullable
+    private Duration resolvedVersionsCacheTime = null;
+
+    @Nullable
+    private Duration invalidResolvesCacheTime = null;
+
+    @Nullable
+    private Boolean background = null;
+
+    @Nullable
+    private Duration checkInterval = null;
+
+    @Nullable
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(@Nullable Integer parallelism) {
+        if (parallelism != null && parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Nullable
+    public Duration getResolvedVersionsCacheTime() {
+        return resolvedVersionsCacheTime;
+    }
+
+    public void setResolvedVersionsCacheTime(@Nullable Duration resolvedVersionsCacheTime) {
+        if (resolvedVersionsCacheTime != null && resolvedVersionsCacheTime.isNegative()) {
+            throw new IllegalArgumentException(
+                    "Resolved versions cache time can not be negative, got " + resolvedVersionsCacheTime);
+        }
+        this.resolvedVersionsCacheTime = resolvedVersionsCacheTime;
+    }
+
+    @Nullable
+    public Duration getInvalidResolvesCacheTime() {
+        return invalidResolvesCacheTime;
+    }
+
+    public void setInvalidResolvesCacheTime(@Nullable Duration invalidResolvesCacheTime) {
+        if (invalidResolvesCacheTime != null && invalidResolvesCacheTime.isNegative()) {
+            throw new IllegalArgumentException(
+                    "Invalid resolves cache time can not be negative, got " + invalidResolvesCacheTime);
+        }
+        this.invalidResolvesCacheTime = invalidResolvesCacheTime;
+    }
+
+    @Nullable
+    public Boolean getBackground() {
+        return background;
+    }
+
+    public void setBackground(@Nullable Boolean background) {
+        this.background = background;
+    }
+
+    @Nullable
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public void setCheckInterval(@Nullable Duration checkInterval) {
+        if (checkInterval != null && checkInterval.isNegative()) {
+            throw new IllegalArgumentException("Check interval can not be negative, got " + checkInterval);
+        }
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Merges settings together
+     *
+     * @param settings Settings to merge. Settings later in the list override settings that are earlier in the list.
+     * @return Merged settings
+     */
+    @Nonnull
+    public static UpdateCheckerSettings merge(@Nonnull Iterable<UpdateCheckerSettings> settings) {
+        UpdateCheckerSettings merged = new UpdateCheckerSettings();
+        for (UpdateCheckerSettings setting : settings) {
+            if (setting.parallelism != null) {
+                merged.parallelism = setting.parallelism;
+            }
+            if (setting.resolvedVersionsCacheTime != null) {
+                merged.resolvedVersionsCacheTime = setting.resolvedVersionsCacheTime;
+            }
+            if (setting.invalidResolvesCacheTime != null) {
+                merged.invalidResolvesCacheTime = setting.invalidResolvesCacheTime;
+            }
+            if (setting.background != null) {
+                merged.background = setting.background;
+            }
+            if (setting.checkInterval != null) {
+                merged.checkInterval = setting.checkInterval;
+            }
+        }
+        return merged;
+    }
+}
@@ -7,22 +7,27 @@ import be.vbgn.gradle.pluginupdates.update.finder.FailureAllowedVersion;
 import be.vbgn.gradle.pluginupdates.update.finder.RenamedModuleFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.UpdateFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.VersionProvider;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.gradle.api.artifacts.ModuleIdentifier;
 
 public class UpdatePolicyImpl implements UpdateBuilder {
 
-    private Set<ModuleIgnoreSpec> moduleIgnoreSpecs = new HashSet<>();
-    private Set<DependencyIgnoreSpec> dependencyIgnoreSpecs = new HashSet<>();
+    private Set<ModuleIgnoreSpec> moduleIgnoreSpecs = new LinkedHashSet<>();
+    private Set<DependencyIgnoreSpec> dependencyIgnoreSpecs = new LinkedHashSet<>();
     private List<ModuleRenameSpec> moduleRenameSpecs = new LinkedList<>();
+    private boolean ignoreUnstable = false;
 
     @Nonnull
     @Override
@@ -48,6 +53,16 @@ public class UpdatePolicyImpl implements UpdateBuilder {
         return renameSpec;
     }
 
+    @Override
+    public void ignoreUnstable() {
+        ignoreUnstable = true;
+    }
+
+    @Override
+    public boolean isIgnoreUnstable() {
+        return ignoreUnstable;
+    }
+
     @Nonnull
     public VersionProvider buildVersionProvider(@Nonnull VersionProvider backingProvider) {
         Set<BiPredicate<Dependency, FailureAllowedVersion>> filterPredicates = moduleIgnoreSpecs.stream()
@@ -73,7 +88,23 @@ public class UpdatePolicyImpl implements UpdateBuilder {
                 .collect(Collectors.toSet());
         Predicate<Dependency> filterPredicate = dependency -> filterPredicates.stream()
                 .allMatch(predicate -> predicate.test(dependency));
-        return dependency -> renamedModuleFinder.findUpdates(dependency).filter(filterPredicate);
+        return new UpdateFinder() {
+            @Nonnull
+            @Override
+            public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+                return renamedModuleFinder.findUpdates(dependency).filter(filterPredicate);
+            }
+
+            @Nonnull
+            @Override
+            public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+                Map<Dependency, List<Dependency>> updates = new HashMap<>();
+                renamedModuleFinder.findAllUpdates(dependencies).forEach((dependency, updatedDependencies) -> updates
+                        .put(dependency, updatedDependencies.stream().filter(filterPredicate)
+                                .collect(Collectors.toList())));
+                return updates;
+            }
+        };
     }
 }
 
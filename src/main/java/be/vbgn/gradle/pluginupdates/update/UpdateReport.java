@@ -0,0 +1,180 @@
+package be.vbgn.gradle.pluginupdates.update;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Text format to store the results of an update check
+ * <p>
+ * The report starts with a header line, followed by one line for every {@link Update}.
+ * A line contains the original dependency, followed by all updates, separated by tabs.
+ * Every dependency is written as <code>group:name:version:classifier:type</code>,
+ * prefixed with <code>!</code> when it is a {@link FailedDependency}.
+ * <p>
+ * The problem of a {@link FailedDependency} is not stored.
+ */
+public final class UpdateReport {
+
+    private static final String HEADER = "# plugin-updates report v1";
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final String FAILED_PREFIX = "!";
+
+    private UpdateReport() {
+    }
+
+    /**
+     * Writes updates in the report format
+     *
+     * @param updates Updates to write
+     * @param writer  Writer to write the report to
+     * @throws IOException When writing fails
+     */
+    public static void write(@Nonnull List<? extends Update> updates, @Nonnull Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Update update : updates) {
+            writer.write(writeDependency(update.getOriginal()));
+            for (Dependency dependency : update.getUpdates()) {
+                writer.write(FIELD_SEPARATOR);
+                writer.write(writeDependency(dependency));
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Reads updates from a report
+     *
+     * @param reader Reader to read the report from
+     * @return Updates that are read from the report, in the order that they were written
+     * @throws IOException When reading fails, or when the report is not in the expected format
+     */
+    @Nonnull
+    public static List<Update> read(@Nonnull Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        String header = bufferedReader.readLine();
+        if (!HEADER.equals(header)) {
+            throw new IOException("Not an update report: unexpected header " + header);
+        }
+        List<Update> updates = new ArrayList<>();
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(String.valueOf(FIELD_SEPARATOR));
+            Dependency original = readDependency(fields[0]);
+            List<Dependency> updatedDependencies = new ArrayList<>(fields.length - 1);
+            for (int i = 1; i < fields.length; i++) {
+                updatedDependencies.add(readDependency(fields[i]));
+            }
+            updates.add(new ReportedUpdate(original, updatedDependencies));
+        }
+        return updates;
+    }
+
+    /**
+     * Writes updates to a string in the report format
+     *
+     * @param updates Updates to write
+     * @return The report
+     */
+    @Nonnull
+    public static String toString(@Nonnull List<? extends Update> updates) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(updates, writer);
+        } catch (IOException e) {
+            // A StringWriter does not throw IOExceptions
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Reads updates from a string in the report format
+     *
+     * @param report The report
+     * @return Updates that are read from the report
+     * @throws IOException When the report is not in the expected format
+     */
+    @Nonnull
+    public static List<Update> fromString(@Nonnull String report) throws IOException {
+        return read(new StringReader(report));
+    }
+
+    /**
+     * Writes a single dependency in the notation that is used in the report
+     *
+     * @param dependency The dependency to write
+     * @return Notation of the dependency
+     */
+    @Nonnull
+    public static String writeDependency(@Nonnull Dependency dependency) {
+        return (dependency instanceof FailedDependency ? FAILED_PREFIX : "") + dependency.getGroup() + ":"
+                + dependency.getName() + ":" + dependency.getVersion() + ":" + dependency.getClassifier() + ":"
+                + dependency.getType();
+    }
+
+    /**
+     * Reads a single dependency from the notation that is used in the report
+     *
+     * @param notation Notation of the dependency
+     * @return The dependency
+     * @throws IOException When the notation is not valid
+     */
+    @Nonnull
+    public static Dependency readDependency(@Nonnull String notation) throws IOException {
+        boolean failed = notation.startsWith(FAILED_PREFIX);
+        String[] parts = (failed ? notation.substring(FAILED_PREFIX.length()) : notation).split(":", -1);
+        if (parts.length != 5) {
+            throw new IOException("Invalid dependency in update report: " + notation);
+        }
+        try {
+            if (failed) {
+                return new DefaultFailedDependency(parts[0], parts[1], parts[2], null);
+            }
+            return new DefaultDependency(parts[0], parts[1], parts[2], parts[3], parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid dependency in update report: " + notation, e);
+        }
+    }
+
+    private static class ReportedUpdate implements Update {
+
+        @Nonnull
+        private final Dependency original;
+        @Nonnull
+        private final List<Dependency> updates;
+
+        private ReportedUpdate(@Nonnull Dependency original, @Nonnull List<Dependency> updates) {
+            this.original = original;
+            this.updates = Collections.unmodifiableList(updates);
+        }
+
+        @Nonnull
+        @Override
+        public Dependency getOriginal() {
+            return original;
+        }
+
+        @Nonnull
+        @Override
+        public List<Dependency> getUpdates() {
+            return updates;
+        }
+    }
+}
@@ -4,8 +4,10 @@ import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.update.Update;
 import be.vbgn.gradle.pluginupdates.update.finder.UpdateFinder;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -30,18 +32,31 @@ public class DefaultUpdateChecker implements UpdateChecker {
             LOGGER.info("{} is empty, no update checking needed.", configuration);
             return Stream.empty();
         }
-        return configuration.getResolvedConfiguration()
+        List<Dependency> dependencies = configuration.getResolvedConfiguration()
                 .getFirstLevelModuleDependencies()
                 .stream()
                 .flatMap(DefaultDependency::fromGradle)
                 .peek(dependency -> LOGGER.debug("First level module of {}: {}", configuration, dependency))
-                .map(dependency -> new UpdateEntry(dependency, getUpdatedDependencies(dependency)));
+                .collect(Collectors.toList());
+
+        return getUpdates(dependencies);
+    }
+
+    @Override
+    @Nonnull
+    public Stream<Update> getUpdates(@Nonnull List<Dependency> dependencies) {
+        // Checked on the calling thread, gradle does not allow resolving configurations from other threads
+        Map<Dependency, List<Dependency>> updates = updateFinder.findAllUpdates(dependencies);
+
+        return dependencies.stream()
+                .map(dependency -> new UpdateEntry(dependency,
+                        getUpdatedDependencies(updates.getOrDefault(dependency, Collections.emptyList()))));
 
     }
 
     @Nonnull
-    private Stream<Dependency> getUpdatedDependencies(@Nonnull Dependency dependency) {
-        return updateFinder.findUpdates(dependency)
+    private static Stream<Dependency> getUpdatedDependencies(@Nonnull List<Dependency> updates) {
+        return updates.stream()
                 .distinct()
                 .sorted(Comparator.comparing(Dependency::getVersion));
     }
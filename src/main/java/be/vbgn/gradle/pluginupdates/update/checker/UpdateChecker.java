@@ -1,6 +1,8 @@
 package be.vbgn.gradle.pluginupdates.update.checker;
 
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.update.Update;
+import java.util.List;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.gradle.api.artifacts.Configuration;
@@ -22,4 +24,13 @@ public interface UpdateChecker {
     @Nonnull
     Stream<Update> getUpdates(@Nonnull Configuration configuration);
 
+    /**
+     * Checks for updates for a list of dependencies
+     *
+     * @param dependencies The dependencies to check for updates
+     * @return A stream of updates for the dependencies, in the same order as the dependencies
+     */
+    @Nonnull
+    Stream<Update> getUpdates(@Nonnull List<Dependency> dependencies);
+
 }
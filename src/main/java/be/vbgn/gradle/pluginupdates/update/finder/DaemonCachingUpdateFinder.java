@@ -0,0 +1,169 @@
+package be.vbgn.gradle.pluginupdates.update.finder;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Remembers the updates found for a dependency for the lifetime of the gradle daemon
+ * <p>
+ * Results are kept in a static map, so back-to-back builds in the same daemon do not look up versions again.
+ * Only strings are stored in the map: the plugin can be loaded in a different classloader for every build script
+ * classpath, and every classloader has its own map. No plugin objects are kept alive by the map.
+ * <p>
+ * Results that contain a dependency that could not be resolved are not remembered.
+ */
+public class DaemonCachingUpdateFinder implements UpdateFinder {
+
+    private static final Logger LOGGER = Logging.getLogger(DaemonCachingUpdateFinder.class);
+
+    static final int MAX_ENTRIES = 10_000;
+
+    /**
+     * Notations of the updates per scope and dependency notation
+     */
+    private static final ConcurrentMap<String, Entry> RESULTS = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final UpdateFinder updateFinder;
+
+    @Nonnull
+    private final String scope;
+
+    private final long maxAge;
+
+    private final boolean refresh;
+
+    /**
+     * @param updateFinder Update finder that is used for dependencies that have no remembered results
+     * @param scope        Identifies all inputs that the results of the update finder depend on, besides the dependency itself
+     * @param maxAge       Time in milliseconds that results are remembered
+     * @param refresh      When true, remembered results are not used, but new results are remembered
+     */
+    public DaemonCachingUpdateFinder(@Nonnull UpdateFinder updateFinder, @Nonnull String scope, long maxAge,
+            boolean refresh) {
+        this.updateFinder = updateFinder;
+        this.scope = scope;
+        this.maxAge = maxAge;
+        this.refresh = refresh;
+    }
+
+    /**
+     * Forgets all remembered results
+     */
+    static void clear() {
+        RESULTS.clear();
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+        return findAllUpdates(Collections.singleton(dependency)).get(dependency).stream();
+    }
+
+    @Nonnull
+    @Override
+    public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> updates = new LinkedHashMap<>();
+        Set<Dependency> missing = new LinkedHashSet<>();
+        for (Dependency dependency : dependencies) {
+            List<Dependency> remembered = refresh ? null : lookup(dependency);
+            if (remembered != null) {
+                LOGGER.debug("Using update check result of earlier build for {}", dependency);
+                updates.put(dependency, remembered);
+            } else {
+                missing.add(dependency);
+            }
+        }
+        if (missing.isEmpty()) {
+            return updates;
+        }
+
+        Map<Dependency, List<Dependency>> foundUpdates = updateFinder.findAllUpdates(new ArrayList<>(missing));
+        long now = System.currentTimeMillis();
+        foundUpdates.forEach((dependency, dependencyUpdates) -> {
+            if (dependencyUpdates.stream().noneMatch(FailedDependency.class::isInstance)) {
+                remember(dependency, dependencyUpdates, now);
+            }
+        });
+
+        // Keep the order of the requested dependencies
+        Map<Dependency, List<Dependency>> orderedUpdates = new LinkedHashMap<>();
+        for (Dependency dependency : dependencies) {
+            List<Dependency> dependencyUpdates = updates.get(dependency);
+            if (dependencyUpdates == null) {
+                dependencyUpdates = foundUpdates.getOrDefault(dependency, Collections.emptyList());
+            }
+            orderedUpdates.put(dependency, dependencyUpdates);
+        }
+        return orderedUpdates;
+    }
+
+    @Nonnull
+    private String createKey(@Nonnull Dependency dependency) {
+        return scope + "/" + UpdateReport.writeDependency(dependency);
+    }
+
+    @Nullable
+    private List<Dependency> lookup(@Nonnull Dependency dependency) {
+        String key = createKey(dependency);
+        Entry entry = RESULTS.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.foundAt <= System.currentTimeMillis() - maxAge) {
+            RESULTS.remove(key, entry);
+            return null;
+        }
+        List<Dependency> updates = new ArrayList<>(entry.notations.length);
+        try {
+            for (String notation : entry.notations) {
+                updates.add(UpdateReport.readDependency(notation));
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Remembered update check result for {} can not be read", dependency, e);
+            return null;
+        }
+        return updates;
+    }
+
+    private void remember(@Nonnull Dependency dependency, @Nonnull List<Dependency> updates, long now) {
+        if (RESULTS.size() >= MAX_ENTRIES) {
+            RESULTS.values().removeIf(entry -> entry.foundAt <= now - maxAge);
+            if (RESULTS.size() >= MAX_ENTRIES) {
+                LOGGER.debug("Too many remembered update check results, forgetting all of them");
+                RESULTS.clear();
+            }
+        }
+        String[] notations = updates.stream().map(UpdateReport::writeDependency).toArray(String[]::new);
+        RESULTS.put(createKey(dependency), new Entry(now, notations));
+    }
+
+    private static final class Entry {
+
+        private final long foundAt;
+        @Nonnull
+        private final String[] notations;
+
+        private Entry(long foundAt, @Nonnull String[] notations) {
+            this.foundAt = foundAt;
+            this.notations = notations;
+        }
+    }
+}
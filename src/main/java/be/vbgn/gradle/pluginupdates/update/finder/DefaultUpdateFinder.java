@@ -4,12 +4,36 @@ import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
 import be.vbgn.gradle.pluginupdates.update.resolver.DefaultDependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.DependencyResolver;
+import be.vbgn.gradle.pluginupdates.version.Version;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 
+/**
+ * Finds updates by resolving the version constraints of a {@link VersionProvider}
+ * <p>
+ * Constraints are evaluated in the order of the version provider, widest first. A constraint is not resolved when the
+ * result of a wider constraint that contains it already answers it:
+ * <ul>
+ * <li>When the wider constraint resolved to a version that is not newer than the dependency, the narrower constraint
+ * can not resolve to a newer version either, so it is skipped.</li>
+ * <li>When the wider constraint resolved to a version that also matches the narrower constraint, that version is the
+ * highest version of the narrower constraint too, so it is reused.</li>
+ * </ul>
+ * For a dependency that is already up-to-date, only the widest constraint is resolved.
+ */
 public class DefaultUpdateFinder implements UpdateFinder {
 
     private static final Logger LOGGER = Logging.getLogger(DefaultUpdateFinder.class);
@@ -35,30 +59,170 @@ public class DefaultUpdateFinder implements UpdateFinder {
     @Override
     @Nonnull
     public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
-        return this.versionProvider.getUpdateVersions(dependency)
-                .flatMap(failureAllowedVersion -> {
-                    Dependency toLookup = dependency.withVersion(failureAllowedVersion.getVersion());
-                    Stream<Dependency> resolvedDependencies = dependencyResolver.resolve(toLookup);
+        Evaluation evaluation = new Evaluation(dependency, versionProvider.getUpdateVersions(dependency).iterator());
+        for (Dependency toResolve = evaluation.next(); toResolve != null; toResolve = evaluation.next()) {
+            evaluation.complete(dependencyResolver.resolve(toResolve));
+        }
+        return evaluation.getUpdates().stream()
+                .peek(DefaultUpdateFinder::logFailure);
+    }
 
-                    if (!failureAllowedVersion.isFailureAllowed()) {
-                        return resolvedDependencies;
-                    }
-                    // If failure of a version is allowed, filter out all failed dependencies as if they were never asked for
-                    // Failures may occur because we look up wildcards one level deeper than we have a version number.
-                    return resolvedDependencies
-                            .peek(dependency1 -> {
-                                if (dependency1 instanceof FailedDependency) {
-                                    LOGGER.debug("Suppressed failure to resolve {}", dependency1,
-                                            ((FailedDependency) dependency1).getProblem());
-                                }
-                            })
-                            .filter(dependency1 -> !(dependency1 instanceof FailedDependency));
-                })
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The constraints are resolved in rounds. Every round passes the next constraint that needs to be resolved for all
+     * dependencies to {@link DependencyResolver#resolveAll(Collection)} together.
+     */
+    @Override
+    @Nonnull
+    public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, Evaluation> evaluations = new LinkedHashMap<>();
+        for (Dependency dependency : dependencies) {
+            evaluations.computeIfAbsent(dependency,
+                    d -> new Evaluation(d, versionProvider.getUpdateVersions(d).iterator()));
+        }
+
+        Map<Evaluation, Dependency> toLookup = new LinkedHashMap<>();
+        for (Evaluation evaluation : evaluations.values()) {
+            Dependency next = evaluation.next();
+            if (next != null) {
+                toLookup.put(evaluation, next);
+            }
+        }
+        while (!toLookup.isEmpty()) {
+            Map<Dependency, List<Dependency>> resolvedDependencies = dependencyResolver
+                    .resolveAll(new LinkedHashSet<>(toLookup.values()));
+            Map<Evaluation, Dependency> nextLookup = new LinkedHashMap<>();
+            toLookup.forEach((evaluation, lookup) -> {
+                evaluation.complete(resolvedDependencies.getOrDefault(lookup, Collections.emptyList()).stream());
+                Dependency next = evaluation.next();
+                if (next != null) {
+                    nextLookup.put(evaluation, next);
+                }
+            });
+            toLookup = nextLookup;
+        }
+
+        Map<Dependency, List<Dependency>> updates = new HashMap<>();
+        evaluations.forEach((dependency, evaluation) -> {
+            evaluation.getUpdates().forEach(DefaultUpdateFinder::logFailure);
+            updates.put(dependency, evaluation.getUpdates());
+        });
+        return updates;
+    }
+
+    @Nonnull
+    private static Stream<Dependency> filterAllowedFailures(@Nonnull FailureAllowedVersion failureAllowedVersion,
+            @Nonnull Stream<Dependency> resolvedDependencies) {
+        if (!failureAllowedVersion.isFailureAllowed()) {
+            return resolvedDependencies;
+        }
+        // If failure of a version is allowed, filter out all failed dependencies as if they were never asked for
+        // Failures may occur because we look up wildcards one level deeper than we have a version number.
+        return resolvedDependencies
                 .peek(dependency1 -> {
                     if (dependency1 instanceof FailedDependency) {
-                        LOGGER.warn("Could not resolve {}", dependency1);
-                        LOGGER.debug("Resolve exception", ((FailedDependency) dependency1).getProblem());
+                        LOGGER.debug("Suppressed failure to resolve {}", dependency1,
+                                ((FailedDependency) dependency1).getProblem());
                     }
-                });
+                })
+                .filter(dependency1 -> !(dependency1 instanceof FailedDependency));
+    }
+
+    private static void logFailure(@Nonnull Dependency dependency) {
+        if (dependency instanceof FailedDependency) {
+            LOGGER.warn("Could not resolve {}", dependency);
+            LOGGER.debug("Resolve exception", ((FailedDependency) dependency).getProblem());
+        }
+    }
+
+    /**
+     * Evaluates the version constraints of one dependency, widest first
+     */
+    private static final class Evaluation {
+
+        @Nonnull
+        private final Dependency dependency;
+
+        @Nonnull
+        private final Iterator<FailureAllowedVersion> constraints;
+
+        /**
+         * Constraints that have resolved to exactly one version, with the version they resolved to
+         */
+        @Nonnull
+        private final Map<Version, Dependency> resolved = new LinkedHashMap<>();
+
+        @Nonnull
+        private final List<Dependency> updates = new ArrayList<>();
+
+        private FailureAllowedVersion pending;
+
+        private Evaluation(@Nonnull Dependency dependency, @Nonnull Iterator<FailureAllowedVersion> constraints) {
+            this.dependency = dependency;
+            this.constraints = constraints;
+        }
+
+        /**
+         * Moves to the next constraint that can not be answered from the results of wider constraints
+         *
+         * @return The dependency to resolve for the constraint, or null when all constraints have been evaluated
+         */
+        private Dependency next() {
+            pending = null;
+            while (constraints.hasNext()) {
+                FailureAllowedVersion constraint = constraints.next();
+                if (!answerFromWiderConstraint(constraint.getVersion())) {
+                    pending = constraint;
+                    return dependency.withVersion(constraint.getVersion());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Records the result of resolving the dependency that was returned by {@link #next()}
+         */
+        private void complete(@Nonnull Stream<Dependency> resolvedDependencies) {
+            List<Dependency> results = filterAllowedFailures(pending, resolvedDependencies)
+                    .collect(Collectors.toList());
+            updates.addAll(results);
+            if (results.size() == 1 && isSameModuleVersion(results.get(0))) {
+                resolved.put(pending.getVersion(), results.get(0));
+            }
+        }
+
+        private boolean isSameModuleVersion(@Nonnull Dependency result) {
+            return !(result instanceof FailedDependency)
+                    && result.getGroup().equals(dependency.getGroup())
+                    && result.getName().equals(dependency.getName());
+        }
+
+        private boolean answerFromWiderConstraint(@Nonnull Version constraint) {
+            for (Map.Entry<Version, Dependency> entry : resolved.entrySet()) {
+                if (!entry.getKey().matches(constraint)) {
+                    // Not a wider constraint
+                    continue;
+                }
+                Dependency result = entry.getValue();
+                if (result.getVersion().compareTo(dependency.getVersion()) <= 0) {
+                    LOGGER.debug("Dependency {}: skipped update constraint {}, {} resolved to {}", dependency,
+                            constraint, entry.getKey(), result.getVersion());
+                    return true;
+                }
+                if (constraint.matches(result.getVersion())) {
+                    LOGGER.debug("Dependency {}: update constraint {} resolves to {} like {}", dependency,
+                            constraint, result.getVersion(), entry.getKey());
+                    updates.add(result);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Nonnull
+        private List<Dependency> getUpdates() {
+            return updates;
+        }
     }
 }
@@ -3,13 +3,19 @@ package be.vbgn.gradle.pluginupdates.update.finder;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.version.NumberWildcard;
 import be.vbgn.gradle.pluginupdates.version.Version;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 
+/**
+ * Generates a wildcard constraint for every level of the version of a dependency
+ * <p>
+ * Constraints are generated from widest to narrowest: <code>+</code>, <code>MAJOR.+</code>, <code>MAJOR.MINOR.+</code>
+ * and <code>MAJOR.MINOR.MICRO.+</code>
+ */
 public class DefaultVersionProvider implements VersionProvider{
     private static final Logger LOGGER = Logging.getLogger(DefaultVersionProvider.class);
 
@@ -19,7 +25,7 @@ public class DefaultVersionProvider implements VersionProvider{
         Version version = dependency.getVersion();
         LOGGER.debug("Generating update constraints for dependency {}", dependency);
         NumberWildcard wildcard = NumberWildcard.wildcard();
-        Set<FailureAllowedVersion> versions = new HashSet<>();
+        Set<FailureAllowedVersion> versions = new LinkedHashSet<>();
         versions.add(new FailureAllowedVersion(version.withMajor(wildcard), version.getMajor().isEmpty()));
         if (!version.getMajor().isEmpty() && !version.getMajor().hasWildcard()) {
             versions.add(new FailureAllowedVersion(version.withMinor(wildcard), version.getMinor().isEmpty()));
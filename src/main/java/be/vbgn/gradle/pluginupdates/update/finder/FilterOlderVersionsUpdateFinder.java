@@ -1,6 +1,11 @@
 package be.vbgn.gradle.pluginupdates.update.finder;
 
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.gradle.api.logging.Logger;
@@ -18,7 +23,23 @@ public class FilterOlderVersionsUpdateFinder implements UpdateFinder {
     @Nonnull
     @Override
     public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
-        return updateFinder.findUpdates(dependency)
+        return filterOlderVersions(dependency, updateFinder.findUpdates(dependency));
+    }
+
+    @Nonnull
+    @Override
+    public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> updates = new HashMap<>();
+        updateFinder.findAllUpdates(dependencies).forEach((dependency, updatedDependencies) -> updates
+                .put(dependency, filterOlderVersions(dependency, updatedDependencies.stream())
+                        .collect(Collectors.toList())));
+        return updates;
+    }
+
+    @Nonnull
+    private static Stream<Dependency> filterOlderVersions(@Nonnull Dependency dependency,
+            @Nonnull Stream<Dependency> updatedDependencies) {
+        return updatedDependencies
                 .filter(updatedDependency -> {
                     if(!updatedDependency.getGroup().equals(dependency.getGroup()) || !updatedDependency.getName().equals(dependency.getName())) {
                         LOGGER.debug("Not checking version because GA coordinates are different.");
@@ -0,0 +1,148 @@
+package be.vbgn.gradle.pluginupdates.update.finder;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Remembers the updates found for a dependency, so they are only looked up once
+ * <p>
+ * Results are stored in a map that can be shared between multiple update finders.
+ * The scope separates results of update finders that can return different updates for the same dependency,
+ * for example because they use different repositories or a different update policy.
+ * <p>
+ * When multiple threads look up the same dependency at the same time, only one of them does the lookup
+ * and the others wait for its result.
+ */
+public class MemoizingUpdateFinder implements UpdateFinder {
+
+    private static final Logger LOGGER = Logging.getLogger(MemoizingUpdateFinder.class);
+
+    @Nonnull
+    private final UpdateFinder updateFinder;
+
+    @Nonnull
+    private final ConcurrentMap<Key, CompletableFuture<List<Dependency>>> results;
+
+    @Nonnull
+    private final String scope;
+
+    /**
+     * @param updateFinder Update finder that is used for dependencies that have not been looked up yet
+     * @param results      Map in which results are stored, can be shared with other memoizing update finders
+     * @param scope        Identifies all inputs that the results of the update finder depend on, besides the dependency itself
+     */
+    public MemoizingUpdateFinder(@Nonnull UpdateFinder updateFinder,
+            @Nonnull ConcurrentMap<Key, CompletableFuture<List<Dependency>>> results, @Nonnull String scope) {
+        this.updateFinder = updateFinder;
+        this.results = results;
+        this.scope = scope;
+    }
+
+    @Nonnull
+    @Override
+    public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+        return findAllUpdates(Collections.singleton(dependency)).get(dependency).stream();
+    }
+
+    @Nonnull
+    @Override
+    public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, CompletableFuture<List<Dependency>>> futures = new LinkedHashMap<>();
+        Map<Dependency, CompletableFuture<List<Dependency>>> owned = new HashMap<>();
+        for (Dependency dependency : dependencies) {
+            if (futures.containsKey(dependency)) {
+                continue;
+            }
+            CompletableFuture<List<Dependency>> future = new CompletableFuture<>();
+            CompletableFuture<List<Dependency>> existingFuture = results.putIfAbsent(new Key(scope, dependency), future);
+            if (existingFuture == null) {
+                owned.put(dependency, future);
+                futures.put(dependency, future);
+            } else {
+                LOGGER.debug("Using earlier update check result for {}", dependency);
+                futures.put(dependency, existingFuture);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            lookup(owned);
+        }
+
+        Map<Dependency, List<Dependency>> updates = new LinkedHashMap<>();
+        try {
+            futures.forEach((dependency, future) -> updates.put(dependency, future.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return updates;
+    }
+
+    private void lookup(@Nonnull Map<Dependency, CompletableFuture<List<Dependency>>> owned) {
+        try {
+            Map<Dependency, List<Dependency>> updates = updateFinder.findAllUpdates(new ArrayList<>(owned.keySet()));
+            owned.forEach((dependency, future) -> future
+                    .complete(updates.getOrDefault(dependency, Collections.emptyList())));
+        } catch (RuntimeException | Error e) {
+            // Do not remember failures, a later lookup can try again
+            owned.forEach((dependency, future) -> {
+                results.remove(new Key(scope, dependency), future);
+                future.completeExceptionally(e);
+            });
+        }
+    }
+
+    /**
+     * Key of a memoized result
+     */
+    public static final class Key {
+
+        @Nonnull
+        private final String scope;
+        @Nonnull
+        private final Dependency dependency;
+
+        private Key(@Nonnull String scope, @Nonnull Dependency dependency) {
+            this.scope = scope;
+            this.dependency = dependency;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return scope.equals(key.scope) && dependency.equals(key.dependency);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, dependency);
+        }
+
+        @Override
+        public String toString() {
+            return scope + ":" + dependency;
+        }
+    }
+}
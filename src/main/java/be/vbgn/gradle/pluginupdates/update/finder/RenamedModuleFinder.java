@@ -2,6 +2,13 @@ package be.vbgn.gradle.pluginupdates.update.finder;
 
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.version.Version;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -26,6 +33,28 @@ public class RenamedModuleFinder implements UpdateFinder {
     @Override
     @Nonnull
     public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+        return updateFinder.findUpdates(rename(dependency));
+    }
+
+    @Override
+    @Nonnull
+    public Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, Dependency> renamedDependencies = new LinkedHashMap<>();
+        for (Dependency dependency : dependencies) {
+            renamedDependencies.put(dependency, rename(dependency));
+        }
+
+        Map<Dependency, List<Dependency>> renamedUpdates = updateFinder
+                .findAllUpdates(new LinkedHashSet<>(renamedDependencies.values()));
+
+        Map<Dependency, List<Dependency>> updates = new HashMap<>();
+        renamedDependencies.forEach((dependency, renamed) -> updates
+                .put(dependency, renamedUpdates.getOrDefault(renamed, Collections.emptyList())));
+        return updates;
+    }
+
+    @Nonnull
+    private Dependency rename(@Nonnull Dependency dependency) {
         DependencyImpl dependencyWrapper = new DependencyImpl(dependency, false);
         Dependency transformed = renames.apply(dependencyWrapper);
         boolean withVersionCalled =
@@ -43,8 +72,7 @@ public class RenamedModuleFinder implements UpdateFinder {
         if (!dependency.equals(transformed)) {
             LOGGER.debug("Transformation of {} changed dependency to {}", dependency, transformed);
         }
-
-        return updateFinder.findUpdates(transformed);
+        return transformed;
     }
 
     private static class DependencyImpl implements Dependency {
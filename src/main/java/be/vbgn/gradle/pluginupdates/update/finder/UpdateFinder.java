@@ -1,6 +1,11 @@
 package be.vbgn.gradle.pluginupdates.update.finder;
 
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
@@ -16,4 +21,22 @@ public interface UpdateFinder {
     @Nonnull
     Stream<Dependency> findUpdates(@Nonnull Dependency dependency);
 
+    /**
+     * Finds newer versions for multiple dependencies at once
+     * <p>
+     * The result for every dependency is the same as the result of {@link #findUpdates(Dependency)} for that dependency,
+     * but implementations may look up all dependencies together instead of one by one.
+     *
+     * @param dependencies The dependencies to find newer versions for
+     * @return a map from every dependency to the newer versions for that dependency, in increasing order.
+     */
+    @Nonnull
+    default Map<Dependency, List<Dependency>> findAllUpdates(@Nonnull Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> updates = new LinkedHashMap<>();
+        for (Dependency dependency : dependencies) {
+            updates.computeIfAbsent(dependency, d -> findUpdates(d).collect(Collectors.toList()));
+        }
+        return updates;
+    }
+
 }
@@ -6,6 +6,9 @@ import javax.annotation.Nonnull;
 
 /**
  * A version provider generates a list of version constraints that are updates of a {@link Dependency}
+ * <p>
+ * Constraints should be ordered from widest to narrowest, so the result of a wider constraint can be used to answer
+ * the narrower constraints without resolving them.
  */
 public interface VersionProvider {
 
@@ -4,11 +4,22 @@ import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
 import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import be.vbgn.gradle.pluginupdates.version.Version;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.artifacts.UnresolvedDependency;
 import org.gradle.api.artifacts.dsl.DependencyHandler;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.logging.Logger;
@@ -18,11 +29,22 @@ public class DefaultDependencyResolver implements DependencyResolver {
     private static final Logger LOGGER = Logging.getLogger(DefaultDependencyResolver.class);
     private DependencyHandler dependencyHandler;
     private ConfigurationContainer configurationContainer;
+    private boolean ignoreUnstable = false;
 
     public DefaultDependencyResolver(ScriptHandler scriptHandler) {
         this(scriptHandler.getDependencies(), scriptHandler.getConfigurations());
     }
 
+    /**
+     * @param scriptHandler  The buildscript to resolve dependencies with
+     * @param ignoreUnstable Whether versions that are not {@link Version#isStable() stable} are rejected before they
+     *                       are resolved. A dependency that only matches rejected versions resolves to nothing.
+     */
+    public DefaultDependencyResolver(ScriptHandler scriptHandler, boolean ignoreUnstable) {
+        this(scriptHandler);
+        this.ignoreUnstable = ignoreUnstable;
+    }
+
     public DefaultDependencyResolver(Project project) {
         this(project.getDependencies(), project.getConfigurations());
     }
@@ -35,23 +57,162 @@ public class DefaultDependencyResolver implements DependencyResolver {
 
     @Override
     public Stream<Dependency> resolve(Dependency dependency) {
-        LOGGER.debug("Resolving dependency {}", dependency);
-        org.gradle.api.artifacts.Dependency updatedDependency = dependencyHandler
-                .create(dependency.toDependencyNotation());
-        Configuration updatedConfiguration = configurationContainer.detachedConfiguration(updatedDependency);
+        return resolveAll(Collections.singleton(dependency)).get(dependency).stream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Dependencies are split in batches where every module is present at most once, because Gradle would apply conflict
+     * resolution to different versions of the same module within one configuration.
+     * Every batch is resolved in a single detached configuration.
+     * <p>
+     * Results are matched to the dependency of the same module. When a module is substituted or relocated, its result
+     * has a different module, and every dependency of the batch that has no result is resolved again on its own.
+     */
+    @Override
+    public Map<Dependency, List<Dependency>> resolveAll(Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        for (Map<String, Dependency> batch : partitionByModule(dependencies)) {
+            resolved.putAll(resolveBatch(batch, ignoreUnstable));
+            if (ignoreUnstable) {
+                resolved.putAll(resolveRejected(batch, resolved));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Dependencies that fail to resolve when unstable versions are rejected are resolved again with all versions.
+     * When they can be resolved then, only unstable versions matched, and they resolve to nothing instead of failing.
+     */
+    private Map<Dependency, List<Dependency>> resolveRejected(Map<String, Dependency> batch,
+            Map<Dependency, List<Dependency>> resolved) {
+        Map<String, Dependency> failedBatch = new LinkedHashMap<>();
+        batch.forEach((moduleKey, dependency) -> {
+            if (resolved.get(dependency).stream().anyMatch(FailedDependency.class::isInstance)) {
+                failedBatch.put(moduleKey, dependency);
+            }
+        });
+        Map<Dependency, List<Dependency>> rejected = new HashMap<>();
+        if (failedBatch.isEmpty()) {
+            return rejected;
+        }
+        resolveBatch(failedBatch, false).forEach((dependency, resolvedDependencies) -> {
+            if (resolvedDependencies.stream().noneMatch(FailedDependency.class::isInstance)) {
+                LOGGER.debug("Only unstable versions of {} are available, they are ignored", dependency);
+                rejected.put(dependency, Collections.emptyList());
+            }
+        });
+        return rejected;
+    }
+
+    private static String moduleKey(String group, String name) {
+        return group + ":" + name;
+    }
+
+    private static List<Map<String, Dependency>> partitionByModule(Collection<Dependency> dependencies) {
+        List<Map<String, Dependency>> batches = new ArrayList<>();
+        dependencies.stream().distinct().forEach(dependency -> {
+            String moduleKey = moduleKey(dependency.getGroup(), dependency.getName());
+            Map<String, Dependency> batch = batches.stream()
+                    .filter(b -> !b.containsKey(moduleKey))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        Map<String, Dependency> newBatch = new LinkedHashMap<>();
+                        batches.add(newBatch);
+                        return newBatch;
+                    });
+            batch.put(moduleKey, dependency);
+        });
+        return batches;
+    }
+
+    private Map<Dependency, List<Dependency>> resolveBatch(Map<String, Dependency> batch, boolean ignoreUnstable) {
+        LOGGER.debug("Resolving dependencies {}", batch.values());
+        org.gradle.api.artifacts.Dependency[] updatedDependencies = batch.values()
+                .stream()
+                .map(dependency -> dependencyHandler.create(dependency.toDependencyNotation()))
+                .toArray(org.gradle.api.artifacts.Dependency[]::new);
+        Configuration updatedConfiguration = configurationContainer.detachedConfiguration(updatedDependencies);
         updatedConfiguration.setTransitive(false);
         updatedConfiguration.setVisible(false);
+        if (ignoreUnstable) {
+            // Rejected before the metadata of the version is downloaded
+            updatedConfiguration.getResolutionStrategy().getComponentSelection().all(selection -> {
+                String candidate = selection.getCandidate().getVersion();
+                boolean stable;
+                try {
+                    stable = Version.parse(candidate).isStable();
+                } catch (IllegalArgumentException e) {
+                    // Versions like 1.0.0+build.5 have no release stage, they are left to gradle
+                    LOGGER.debug("Version {} can not be parsed, it is treated as stable: {}", candidate,
+                            e.getMessage());
+                    stable = true;
+                }
+                if (!stable) {
+                    selection.reject("Unstable versions are ignored");
+                }
+            });
+        }
 
         LenientConfiguration updatedLenientConfiguration = updatedConfiguration.getResolvedConfiguration()
                 .getLenientConfiguration();
 
-        Stream<FailedDependency> failedDependencies = updatedLenientConfiguration.getUnresolvedModuleDependencies()
-                .stream()
-                .map(DefaultFailedDependency::fromGradle);
-        Stream<Dependency> updatedDependencies = updatedLenientConfiguration.getAllModuleDependencies().stream()
-                .flatMap(DefaultDependency::fromGradle);
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        batch.values().forEach(dependency -> resolved.put(dependency, new ArrayList<>()));
+
+        boolean unmatched = false;
+        for (UnresolvedDependency unresolvedDependency : updatedLenientConfiguration
+                .getUnresolvedModuleDependencies()) {
+            ModuleVersionSelector selector = unresolvedDependency.getSelector();
+            unmatched |= !addResolved(resolved, findRequested(batch, selector.getGroup(), selector.getName()),
+                    Stream.of(DefaultFailedDependency.fromGradle(unresolvedDependency)));
+        }
+        for (ResolvedDependency resolvedDependency : updatedLenientConfiguration.getAllModuleDependencies()) {
+            unmatched |= !addResolved(resolved,
+                    findRequested(batch, resolvedDependency.getModuleGroup(), resolvedDependency.getModuleName()),
+                    DefaultDependency.fromGradle(resolvedDependency));
+        }
+        if (unmatched) {
+            // Only a batch of a single dependency can match results of a different module
+            batch.forEach((moduleKey, dependency) -> {
+                if (resolved.get(dependency).isEmpty()) {
+                    LOGGER.debug("Dependency {} has been substituted, it is resolved on its own", dependency);
+                    resolved.putAll(resolveBatch(Collections.singletonMap(moduleKey, dependency), ignoreUnstable));
+                }
+            });
+        }
+        return resolved;
+    }
+
+    /**
+     * Finds the dependency that has requested a module
+     * <p>
+     * In a batch of a single dependency, every module has been requested by that dependency, also when it has been
+     * substituted by a different module.
+     *
+     * @return The dependency that has requested the module, or null when it can not be determined
+     */
+    private static Dependency findRequested(Map<String, Dependency> batch, String group, String name) {
+        if (batch.size() == 1) {
+            return batch.values().iterator().next();
+        }
+        return batch.get(moduleKey(group, name));
+    }
 
-        return Stream.concat(failedDependencies, updatedDependencies)
-                .peek(dependency1 -> LOGGER.debug("Resolved dependency {} to {}", dependency, dependency1));
+    /**
+     * @return Whether the resolved dependencies have been added, false when there is no requesting dependency
+     */
+    private static boolean addResolved(Map<Dependency, List<Dependency>> resolved, Dependency dependency,
+            Stream<? extends Dependency> resolvedDependencies) {
+        if (dependency == null) {
+            return false;
+        }
+        resolvedDependencies.forEach(dependency1 -> {
+            LOGGER.debug("Resolved dependency {} to {}", dependency, dependency1);
+            resolved.get(dependency).add(dependency1);
+        });
+        return true;
     }
 }
@@ -1,8 +1,30 @@
 package be.vbgn.gradle.pluginupdates.update.resolver;
 
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public interface DependencyResolver {
     Stream<Dependency> resolve(Dependency dependency);
+
+    /**
+     * Resolves multiple dependencies at once
+     * <p>
+     * The result for every dependency is the same as the result of {@link #resolve(Dependency)} for that dependency,
+     * but implementations may resolve all dependencies together instead of one by one.
+     *
+     * @param dependencies The dependencies to resolve
+     * @return A map from every requested dependency to the dependencies it has resolved to
+     */
+    default Map<Dependency, List<Dependency>> resolveAll(Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> resolved = new LinkedHashMap<>();
+        for (Dependency dependency : dependencies) {
+            resolved.computeIfAbsent(dependency, d -> resolve(d).collect(Collectors.toList()));
+        }
+        return resolved;
+    }
 }
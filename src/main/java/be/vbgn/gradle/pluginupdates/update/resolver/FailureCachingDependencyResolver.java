@@ -3,6 +3,12 @@ package be.vbgn.gradle.pluginupdates.update.resolver;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.gradle.api.logging.Logger;
@@ -38,4 +44,30 @@ public class FailureCachingDependencyResolver implements DependencyResolver {
                     }
                 });
     }
+
+    @Override
+    public Map<Dependency, List<Dependency>> resolveAll(Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        List<Dependency> toResolve = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            Optional<FailedDependency> maybeFailedDependency = invalidResolvesCache.get(dependency);
+            if (maybeFailedDependency.isPresent()) {
+                LOGGER.trace("Found failed dependency in cache. Using failed dependency {}",
+                        maybeFailedDependency.get());
+                resolved.put(dependency, Collections.singletonList(maybeFailedDependency.get()));
+            } else {
+                toResolve.add(dependency);
+            }
+        }
+
+        if (!toResolve.isEmpty()) {
+            parentResolver.resolveAll(toResolve).forEach((dependency, resolvedDependencies) -> {
+                if (resolvedDependencies.stream().anyMatch(dependency1 -> dependency1 instanceof FailedDependency)) {
+                    invalidResolvesCache.put(dependency);
+                }
+                resolved.put(dependency, resolvedDependencies);
+            });
+        }
+        return resolved;
+    }
 }
@@ -0,0 +1,212 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.GradleRepositoryCompat;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.MavenMetadataVersionLister;
+import be.vbgn.gradle.pluginupdates.version.Version;
+import be.vbgn.gradle.pluginupdates.version.VersionIndex;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.initialization.dsl.ScriptHandler;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Resolves version constraints from the <code>maven-metadata.xml</code> files in the repositories
+ * <p>
+ * All versions of a module are read once, after which every wildcard constraint on that module is answered in memory
+ * by picking the highest version that {@link Version#matches(Version) matches} the constraint from a
+ * {@link be.vbgn.gradle.pluginupdates.version.VersionIndex}.
+ * <p>
+ * When unstable versions are ignored, they are removed from the versions of a module before a constraint is matched.
+ * A constraint that only matches unstable versions resolves to nothing.
+ * <p>
+ * When multiple dependencies are resolved together, the maven metadata of their modules can be fetched in parallel.
+ * Only the fetching happens on other threads, the fallback resolver is always called from the calling thread.
+ * <p>
+ * Dependencies without wildcard, and all dependencies when the repositories can not be read directly,
+ * are resolved with the fallback resolver.
+ * <p>
+ * Maven metadata is read with a plain URL connection, which only knows about the proxy settings in the system
+ * properties. Repositories that need credentials, or that filter their content, are only read by gradle, so the
+ * results are the same as when gradle resolves the dependencies.
+ */
+public class MavenMetadataDependencyResolver implements DependencyResolver {
+
+    private static final Logger LOGGER = Logging.getLogger(MavenMetadataDependencyResolver.class);
+
+    @Nullable
+    private MavenMetadataVersionLister versionLister;
+
+    @Nonnull
+    private DependencyResolver fallbackResolver;
+
+    private boolean ignoreUnstable;
+
+    private int parallelism;
+
+    public MavenMetadataDependencyResolver(@Nonnull ScriptHandler scriptHandler) {
+        this(findMavenRepositories(scriptHandler.getRepositories()), new DefaultDependencyResolver(scriptHandler));
+    }
+
+    /**
+     * @param repositories     Base URLs of the Maven repositories to read versions from.
+     *                         {@code null} when the repositories can not be read directly and all dependencies have to be resolved by the fallback resolver.
+     * @param fallbackResolver Resolver that is used for dependencies that can not be resolved from the maven metadata
+     */
+    public MavenMetadataDependencyResolver(@Nullable List<URI> repositories,
+            @Nonnull DependencyResolver fallbackResolver) {
+        this(repositories, fallbackResolver, false);
+    }
+
+    /**
+     * @param repositories     Base URLs of the Maven repositories to read versions from.
+     *                         {@code null} when the repositories can not be read directly and all dependencies have to be resolved by the fallback resolver.
+     * @param fallbackResolver Resolver that is used for dependencies that can not be resolved from the maven metadata
+     * @param ignoreUnstable   Whether versions that are not {@link Version#isStable() stable} are ignored
+     */
+    public MavenMetadataDependencyResolver(@Nullable List<URI> repositories,
+            @Nonnull DependencyResolver fallbackResolver, boolean ignoreUnstable) {
+        this(repositories, fallbackResolver, ignoreUnstable, 1);
+    }
+
+    /**
+     * @param repositories     Base URLs of the Maven repositories to read versions from.
+     *                         {@code null} when the repositories can not be read directly and all dependencies have to be resolved by the fallback resolver.
+     * @param fallbackResolver Resolver that is used for dependencies that can not be resolved from the maven metadata
+     * @param ignoreUnstable   Whether versions that are not {@link Version#isStable() stable} are ignored
+     * @param parallelism      Maximum number of modules whose maven metadata is fetched at the same time
+     */
+    public MavenMetadataDependencyResolver(@Nullable List<URI> repositories,
+            @Nonnull DependencyResolver fallbackResolver, boolean ignoreUnstable, int parallelism) {
+        this(repositories != null ? new MavenMetadataVersionLister(repositories) : null, fallbackResolver,
+                ignoreUnstable, parallelism);
+    }
+
+    /**
+     * @param versionLister    Lists the versions of modules from maven metadata, it can be shared with other resolvers.
+     *                         {@code null} when the repositories can not be read directly and all dependencies have to be resolved by the fallback resolver.
+     * @param fallbackResolver Resolver that is used for dependencies that can not be resolved from the maven metadata
+     * @param ignoreUnstable   Whether versions that are not {@link Version#isStable() stable} are ignored
+     * @param parallelism      Maximum number of modules whose maven metadata is fetched at the same time
+     */
+    public MavenMetadataDependencyResolver(@Nullable MavenMetadataVersionLister versionLister,
+            @Nonnull DependencyResolver fallbackResolver, boolean ignoreUnstable, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.versionLister = versionLister;
+        this.fallbackResolver = fallbackResolver;
+        this.ignoreUnstable = ignoreUnstable;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param repositoryHandler The repositories to read versions from
+     * @return Base URLs of all repositories, or {@code null} when any of the repositories can not be read directly
+     */
+    @Nullable
+    public static List<URI> findMavenRepositories(@Nonnull RepositoryHandler repositoryHandler) {
+        if (!MavenMetadataVersionLister.canConnectDirectly()) {
+            LOGGER.debug("Proxy requires authentication. Maven metadata will not be used.");
+            return null;
+        }
+        List<URI> repositories = new ArrayList<>(repositoryHandler.size());
+        for (ArtifactRepository repository : repositoryHandler) {
+            if (!(repository instanceof MavenArtifactRepository)) {
+                LOGGER.debug("Repository {} is not a maven repository. Maven metadata will not be used.",
+                        repository.getName());
+                return null;
+            }
+            URI url = ((MavenArtifactRepository) repository).getUrl();
+            if (!MavenMetadataVersionLister.isSupported(url)) {
+                LOGGER.debug("Repository {} with url {} is not supported. Maven metadata will not be used.",
+                        repository.getName(), url);
+                return null;
+            }
+            if (!GradleRepositoryCompat.isUnrestricted((MavenArtifactRepository) repository)) {
+                LOGGER.debug("Repository {} has credentials or a content filter. Maven metadata will not be used.",
+                        repository.getName());
+                return null;
+            }
+            repositories.add(url);
+        }
+        return repositories;
+    }
+
+    private static boolean isDynamic(@Nonnull Version version) {
+        return version.getMajor().hasWildcard() || version.getMinor().hasWildcard() || version.getMicro()
+                .hasWildcard() || version.getPatch().hasWildcard();
+    }
+
+    @Override
+    public Stream<Dependency> resolve(Dependency dependency) {
+        return resolveFromMetadata(dependency)
+                .map(List::stream)
+                .orElseGet(() -> fallbackResolver.resolve(dependency));
+    }
+
+    @Override
+    public Map<Dependency, List<Dependency>> resolveAll(Collection<Dependency> dependencies) {
+        if (versionLister != null && parallelism > 1) {
+            versionLister.prefetch(dependencies.stream()
+                    .filter(dependency -> isDynamic(dependency.getVersion()))
+                    .collect(Collectors.toList()), parallelism);
+        }
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        List<Dependency> toResolve = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            Optional<List<Dependency>> resolvedDependencies = resolveFromMetadata(dependency);
+            if (resolvedDependencies.isPresent()) {
+                resolved.put(dependency, resolvedDependencies.get());
+            } else {
+                toResolve.add(dependency);
+            }
+        }
+        if (!toResolve.isEmpty()) {
+            resolved.putAll(fallbackResolver.resolveAll(toResolve));
+        }
+        return resolved;
+    }
+
+    /**
+     * @param dependency The dependency to resolve
+     * @return The resolved dependency or a {@link be.vbgn.gradle.pluginupdates.dependency.FailedDependency} when no version matches,
+     * no dependencies when only ignored versions match,
+     * or {@link Optional#empty()} when the dependency can not be resolved from maven metadata
+     */
+    @Nonnull
+    private Optional<List<Dependency>> resolveFromMetadata(@Nonnull Dependency dependency) {
+        if (versionLister == null || !isDynamic(dependency.getVersion())) {
+            return Optional.empty();
+        }
+        return versionLister.listVersions(dependency)
+                .map(versions -> {
+                    VersionIndex candidates = ignoreUnstable ? versions.onlyStable() : versions;
+                    Optional<Version> highestVersion = candidates.findHighestMatching(dependency.getVersion());
+                    if (!highestVersion.isPresent() && candidates != versions && versions
+                            .findHighestMatching(dependency.getVersion()).isPresent()) {
+                        LOGGER.debug("Only unstable versions of {} are available, they are ignored", dependency);
+                        return Collections.emptyList();
+                    }
+                    Dependency resolvedDependency = highestVersion.map(dependency::withVersion)
+                            .orElseGet(() -> DefaultFailedDependency.fromDependency(dependency, null));
+                    LOGGER.debug("Resolved dependency {} to {} from maven metadata", dependency, resolvedDependency);
+                    return Collections.singletonList(resolvedDependency);
+                });
+    }
+}
@@ -0,0 +1,99 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsCache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Remembers successfully resolved dependencies across builds
+ * <p>
+ * Results are stored together with a fingerprint of the repositories, so changing the repositories does not return
+ * results that were resolved from other repositories.
+ */
+public class SuccessCachingDependencyResolver implements DependencyResolver {
+
+    private static final Logger LOGGER = Logging.getLogger(SuccessCachingDependencyResolver.class);
+
+    private DependencyResolver parentResolver;
+    private ResolvedVersionsCache resolvedVersionsCache;
+    private String repositories;
+    private boolean refresh;
+
+    /**
+     * @param parentResolver        Resolver used for dependencies that are not in the cache
+     * @param resolvedVersionsCache Cache of successfully resolved dependencies
+     * @param repositories          Fingerprint of the repositories that the parent resolver resolves from
+     * @param refresh               When true, the cache is not read, but only updated with new results
+     */
+    public SuccessCachingDependencyResolver(
+            DependencyResolver parentResolver,
+            ResolvedVersionsCache resolvedVersionsCache,
+            String repositories,
+            boolean refresh) {
+        this.parentResolver = parentResolver;
+        this.resolvedVersionsCache = resolvedVersionsCache;
+        this.repositories = repositories;
+        this.refresh = refresh;
+    }
+
+    private Optional<List<Dependency>> getCached(Dependency dependency) {
+        if (refresh) {
+            return Optional.empty();
+        }
+        Optional<List<Dependency>> cachedDependencies = resolvedVersionsCache.get(repositories, dependency);
+        cachedDependencies
+                .ifPresent(resolved -> LOGGER.trace("Found resolved dependency in cache. Using {}", resolved));
+        return cachedDependencies;
+    }
+
+    private void putCached(Dependency dependency, List<Dependency> resolvedDependencies) {
+        if (!resolvedDependencies.isEmpty() && resolvedDependencies.stream()
+                .noneMatch(dependency1 -> dependency1 instanceof FailedDependency)) {
+            resolvedVersionsCache.put(repositories, dependency, resolvedDependencies);
+        }
+    }
+
+    @Override
+    public Stream<Dependency> resolve(Dependency dependency) {
+        Optional<List<Dependency>> cachedDependencies = getCached(dependency);
+        if (cachedDependencies.isPresent()) {
+            return cachedDependencies.get().stream();
+        }
+
+        List<Dependency> resolvedDependencies = parentResolver.resolve(dependency).collect(Collectors.toList());
+        putCached(dependency, resolvedDependencies);
+        return resolvedDependencies.stream();
+    }
+
+    @Override
+    public Map<Dependency, List<Dependency>> resolveAll(Collection<Dependency> dependencies) {
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        List<Dependency> toResolve = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            Optional<List<Dependency>> cachedDependencies = getCached(dependency);
+            if (cachedDependencies.isPresent()) {
+                resolved.put(dependency, cachedDependencies.get());
+            } else {
+                toResolve.add(dependency);
+            }
+        }
+
+        if (!toResolve.isEmpty()) {
+            parentResolver.resolveAll(toResolve).forEach((dependency, resolvedDependencies) -> {
+                putCached(dependency, resolvedDependencies);
+                resolved.put(dependency, resolvedDependencies);
+            });
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,35 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Resolver that is used when dependencies can not be resolved at all
+ * <p>
+ * Every dependency resolves to a {@link be.vbgn.gradle.pluginupdates.dependency.FailedDependency} with the reason why
+ * it can not be resolved. These failures are not caused by the dependency, so they must not be remembered across builds.
+ */
+public class UnavailableDependencyResolver implements DependencyResolver {
+
+    private static final Logger LOGGER = Logging.getLogger(UnavailableDependencyResolver.class);
+
+    @Nonnull
+    private final String reason;
+
+    /**
+     * @param reason Explains why dependencies can not be resolved
+     */
+    public UnavailableDependencyResolver(@Nonnull String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public Stream<Dependency> resolve(Dependency dependency) {
+        LOGGER.info("Can not resolve dependency {}: {}", dependency, reason);
+        return Stream.of(DefaultFailedDependency.fromDependency(dependency, new IllegalStateException(reason)));
+    }
+}
@@ -0,0 +1,191 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nonnull;
+
+/**
+ * Set of strings that can tell for certain that a string has never been added
+ * <p>
+ * A string that has been added is always reported as possibly contained. A string that has not been added is
+ * reported as possibly contained with a small probability, that grows with the number of strings in the filter.
+ * <p>
+ * Strings can be added concurrently.
+ */
+public final class BloomFilter {
+
+    private static final int MAGIC = 0x50554201;
+    private static final int DEFAULT_BITS = 1 << 16;
+    private static final int DEFAULT_HASHES = 5;
+    private static final int MAX_BITS = 1 << 30;
+
+    /**
+     * Number of bits per string, which sets about a quarter of the bits with the default number of hashes
+     */
+    private static final int BITS_PER_STRING = 16;
+
+    @Nonnull
+    private final AtomicLongArray bits;
+    private final int numHashes;
+
+    private BloomFilter(@Nonnull AtomicLongArray bits, int numHashes) {
+        this.bits = bits;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Creates an empty filter that is large enough for a few thousand strings with a low false positive rate
+     */
+    public BloomFilter() {
+        this(DEFAULT_BITS);
+    }
+
+    /**
+     * Creates an empty filter that is large enough for a number of strings with a low false positive rate
+     *
+     * @param expectedStrings Number of strings that will be added to the filter
+     */
+    public BloomFilter(int expectedStrings) {
+        this(new AtomicLongArray(numBits(expectedStrings) / Long.SIZE), DEFAULT_HASHES);
+    }
+
+    private static int numBits(int expectedStrings) {
+        long bits = Long.highestOneBit(Math.max(1L, (long) expectedStrings * BITS_PER_STRING) - 1) << 1;
+        return (int) Math.min(MAX_BITS, Math.max(DEFAULT_BITS, bits));
+    }
+
+    /**
+     * Reads a filter that has been written with {@link #writeTo(OutputStream)}
+     *
+     * @param inputStream Stream to read the filter from
+     * @return The filter
+     * @throws IOException When the stream can not be read or does not contain a filter
+     */
+    @Nonnull
+    public static BloomFilter readFrom(@Nonnull InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        if (dataInputStream.readInt() != MAGIC) {
+            throw new IOException("Not a bloom filter");
+        }
+        int numHashes = dataInputStream.readInt();
+        int numLongs = dataInputStream.readInt();
+        if (numHashes <= 0 || numLongs <= 0) {
+            throw new IOException("Invalid bloom filter size");
+        }
+        AtomicLongArray bits = new AtomicLongArray(numLongs);
+        for (int i = 0; i < numLongs; i++) {
+            bits.set(i, dataInputStream.readLong());
+        }
+        return new BloomFilter(bits, numHashes);
+    }
+
+    /**
+     * Writes the filter, so it can be read again with {@link #readFrom(InputStream)}
+     *
+     * @param outputStream Stream to write the filter to
+     * @throws IOException When the stream can not be written
+     */
+    public void writeTo(@Nonnull OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        dataOutputStream.writeInt(MAGIC);
+        dataOutputStream.writeInt(numHashes);
+        dataOutputStream.writeInt(bits.length());
+        for (int i = 0; i < bits.length(); i++) {
+            dataOutputStream.writeLong(bits.get(i));
+        }
+        dataOutputStream.flush();
+    }
+
+    /**
+     * @param value The string to add
+     */
+    public void add(@Nonnull String value) {
+        long hash = hash(value);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = bitIndex(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @param value The string to look up
+     * @return false when the string has certainly not been added, true when it may have been added
+     */
+    public boolean mightContain(@Nonnull String value) {
+        long hash = hash(value);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = bitIndex(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The false positive rate grows quickly when more than half of the bits are set
+     *
+     * @return Fraction of the bits that are set, between 0 and 1
+     */
+    public double getFillRatio() {
+        long setBits = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            setBits += Long.bitCount(bits.get(i));
+        }
+        return (double) setBits / ((long) bits.length() * Long.SIZE);
+    }
+
+    /**
+     * Adds all strings of another filter to this filter
+     *
+     * @param other A filter with the same size
+     * @return Whether the other filter could be merged into this filter
+     */
+    public boolean merge(@Nonnull BloomFilter other) {
+        if (other.numHashes != numHashes || other.bits.length() != bits.length()) {
+            return false;
+        }
+        for (int i = 0; i < bits.length(); i++) {
+            long otherWord = other.bits.get(i);
+            long current;
+            do {
+                current = bits.get(i);
+            } while ((current | otherWord) != current && !bits.compareAndSet(i, current, current | otherWord));
+        }
+        return true;
+    }
+
+    /**
+     * Derives the bit index of the n-th hash function from two halves of a single hash
+     */
+    private long bitIndex(long hash, int n) {
+        int combined = (int) hash + n * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % ((long) bits.length() * Long.SIZE);
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the UTF-8 encoded string, which is the same in every JVM
+     */
+    private static long hash(@Nonnull String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // Spread the low bits into the high bits, so both halves are usable as independent hashes
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
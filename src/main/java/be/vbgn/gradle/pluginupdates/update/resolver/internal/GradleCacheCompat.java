@@ -0,0 +1,190 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.FileLockManager.LockMode;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+
+/**
+ * Binds the parts of the gradle cache API that differ between gradle versions
+ * <p>
+ * The running gradle version is inspected once, when this class is loaded. All later calls use the method handles that
+ * have been found then, without reflective lookups or exceptions to detect the gradle version.
+ */
+public final class GradleCacheCompat {
+
+    private static final Logger LOGGER = Logging.getLogger(GradleCacheCompat.class);
+
+    /**
+     * Method handles for the running gradle version, or null when the gradle cache API can not be used
+     */
+    @Nullable
+    private static final Handles HANDLES = Handles.find();
+
+    private GradleCacheCompat() {
+    }
+
+    /**
+     * @return Whether the gradle cache API can be used on the running gradle version
+     */
+    public static boolean isAvailable() {
+        return HANDLES != null;
+    }
+
+    @Nonnull
+    private static Handles handles() throws CacheNotAvailableException {
+        if (HANDLES == null) {
+            throw new CacheNotAvailableException(
+                    new UnsupportedOperationException("The gradle cache API is not available"));
+        }
+        return HANDLES;
+    }
+
+    /**
+     * @return Lock mode that only holds the lock while the cache is used, and releases it when another process needs it
+     * @throws CacheNotAvailableException When the gradle cache API can not be used
+     */
+    @Nonnull
+    static LockMode onDemandLockMode() throws CacheNotAvailableException {
+        return handles().onDemandLockMode;
+    }
+
+    /**
+     * Creates the parameters for an indexed cache
+     *
+     * @param cacheName Name of the indexed cache
+     * @param keyType   Type of the cache keys
+     * @param valueType Type of the cache values
+     * @return Parameters for the indexed cache
+     * @throws CacheNotAvailableException When the gradle cache API can not be used
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentIndexedCacheParameters<K, V> indexedCacheParameters(@Nonnull String cacheName,
+            @Nonnull Class<K> keyType, @Nonnull Class<V> valueType) throws CacheNotAvailableException {
+        try {
+            return (PersistentIndexedCacheParameters<K, V>) handles().createParameters
+                    .invoke(cacheName, keyType, valueType);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CacheNotAvailableException(e);
+        }
+    }
+
+    /**
+     * Retrieves a value from an indexed cache
+     *
+     * @param cache The cache to retrieve the value from
+     * @param key   The key to look up
+     * @return The value in the cache, or null when there is no value for the key
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <K, V> V get(@Nonnull PersistentIndexedCache<K, V> cache, @Nonnull K key) {
+        // The handles exist, because an indexed cache can only be created when the cache API is available
+        try {
+            return (V) HANDLES.get.invoke(cache, key);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Handles {
+
+        /**
+         * Creates {@link PersistentIndexedCacheParameters} from a name, key type and value type
+         */
+        @Nonnull
+        private final MethodHandle createParameters;
+
+        /**
+         * Retrieves a value from a {@link PersistentIndexedCache} by key
+         */
+        @Nonnull
+        private final MethodHandle get;
+
+        @Nonnull
+        private final LockMode onDemandLockMode;
+
+        private Handles(@Nonnull MethodHandle createParameters, @Nonnull MethodHandle get,
+                @Nonnull LockMode onDemandLockMode) {
+            this.createParameters = createParameters;
+            this.get = get;
+            this.onDemandLockMode = onDemandLockMode;
+        }
+
+        @Nullable
+        private static Handles find() {
+            try {
+                // Lock options are available since gradle 4.3
+                Class.forName("org.gradle.cache.LockOptions", false, GradleCacheCompat.class.getClassLoader());
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                return new Handles(findCreateParameters(lookup), findGet(lookup), findOnDemandLockMode());
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.debug("Gradle cache API is not available", e);
+                return null;
+            }
+        }
+
+        @Nonnull
+        private static MethodHandle findCreateParameters(@Nonnull MethodHandles.Lookup lookup)
+                throws ReflectiveOperationException {
+            MethodType methodType = MethodType
+                    .methodType(PersistentIndexedCacheParameters.class, String.class, Class.class, Class.class);
+            if (hasMethod(PersistentIndexedCacheParameters.class, "of", String.class, Class.class, Class.class)) {
+                // Gradle 5.1+
+                return lookup.findStatic(PersistentIndexedCacheParameters.class, "of", methodType);
+            }
+            // Gradle 4.3 - 5.0.+
+            return lookup.findConstructor(PersistentIndexedCacheParameters.class,
+                    methodType.changeReturnType(void.class));
+        }
+
+        @Nonnull
+        private static MethodHandle findGet(@Nonnull MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+            if (hasMethod(PersistentIndexedCache.class, "get", Object.class, Function.class)) {
+                // Gradle 6.8+
+                MethodHandle get = lookup.findVirtual(PersistentIndexedCache.class, "get",
+                        MethodType.methodType(Object.class, Object.class, Function.class));
+                return MethodHandles.insertArguments(get, 2, (Function<Object, Object>) key -> null);
+            }
+            // Gradle 4.3 - 6.7.+
+            return lookup.findVirtual(PersistentIndexedCache.class, "get",
+                    MethodType.methodType(Object.class, Object.class));
+        }
+
+        @Nonnull
+        private static LockMode findOnDemandLockMode() {
+            for (LockMode lockMode : LockMode.values()) {
+                if (lockMode.name().equals("OnDemand")) {
+                    // Gradle 6.0+
+                    return lockMode;
+                }
+            }
+            // Gradle 4.3 - 5.6.+, where LockMode.None locks on demand
+            return LockMode.valueOf("None");
+        }
+
+        private static boolean hasMethod(@Nonnull Class<?> type, @Nonnull String name,
+                @Nonnull Class<?>... parameterTypes) {
+            for (Method method : type.getMethods()) {
+                if (method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), parameterTypes)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import java.util.Collections;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheBuilder;
+import org.gradle.cache.CacheBuilder.LockTarget;
+import org.gradle.cache.CacheOpenException;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.filelock.LockOptionsBuilder;
+
+/**
+ * Key-value cache in the <code>be.vbgn.gradle.pluginupdates</code> cache directory of the gradle user home
+ * <p>
+ * Hides the differences in the gradle cache API between gradle versions
+ * <p>
+ * The cache is opened on first use and stays open until it is {@link #close() closed}. The file lock is only taken
+ * while an operation runs, and is released to other processes that want to use the cache.
+ *
+ * @param <K> Type of the cache keys
+ * @param <V> Type of the cache values
+ */
+public class GradleIndexedCache<K, V> implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(GradleIndexedCache.class);
+
+    /**
+     * Cache builder that is used to create an indexed key-value cache when needed
+     */
+    @Nonnull
+    private final CacheBuilder cacheBuilder;
+
+    /**
+     * Persistent indexed cache parameters for the key-value cache
+     */
+    @Nonnull
+    private final PersistentIndexedCacheParameters<K, V> persistentIndexedCacheParameters;
+
+    /**
+     * The opened cache, or null when the cache is not opened
+     */
+    @Nullable
+    private volatile PersistentCache openedCache = null;
+
+    @Nullable
+    private volatile PersistentIndexedCache<K, V> persistentIndexedCache = null;
+
+    public GradleIndexedCache(@Nonnull CacheRepository cacheRepository, @Nonnull String cacheName,
+            @Nonnull Class<K> keyType, @Nonnull Class<V> valueType) throws CacheNotAvailableException {
+        this.cacheBuilder = cacheRepository.cache("be.vbgn.gradle.pluginupdates")
+                .withCrossVersionCache(LockTarget.DefaultTarget)
+                .withLockOptions(LockOptionsBuilder.mode(GradleCacheCompat.onDemandLockMode()))
+                // Version 3 stores dependencies as notations instead of as serialized objects
+                .withProperties(Collections.singletonMap("cacheVersion", "3"));
+        persistentIndexedCacheParameters = GradleCacheCompat.indexedCacheParameters(cacheName, keyType, valueType);
+    }
+
+    /**
+     * Runs an operation on the cache
+     * <p>
+     * Opens the cache when it is not open yet, and holds the file lock of the cache while the operation runs
+     *
+     * @param cacheHandler Function that will be run and passed a reference to the cache
+     * @param <T>          Return type of the {@code cacheHandler} function
+     * @return The value that {@code cacheHandler} returns, or null when the cache can not be opened
+     */
+    @Nullable
+    public <T> T withCache(@Nonnull Function<PersistentIndexedCache<K, V>, T> cacheHandler) {
+        PersistentCache cache;
+        PersistentIndexedCache<K, V> indexedCache;
+        synchronized (this) {
+            if (openedCache == null) {
+                try {
+                    openedCache = cacheBuilder.open();
+                    LOGGER.debug("Opened cache {}", openedCache);
+                    persistentIndexedCache = openedCache.createCache(persistentIndexedCacheParameters);
+                    LOGGER.debug("Opened indexed cache {} with parameters {}", persistentIndexedCache,
+                            persistentIndexedCacheParameters);
+                } catch (CacheOpenException e) {
+                    LOGGER.warn("Plugin updates cache could not be opened. Skipping use of cache.");
+                    LOGGER.debug("Full stacktrace for above warning", e);
+                    closeQuietly();
+                    return null;
+                } catch (RuntimeException e) {
+                    // The indexed cache can not be created when it is already open with other parameters,
+                    // for example by the plugin in another classloader
+                    LOGGER.warn("Plugin updates cache could not be opened. Skipping use of cache.");
+                    LOGGER.debug("Full stacktrace for above warning", e);
+                    closeQuietly();
+                    return null;
+                }
+            }
+            cache = openedCache;
+            indexedCache = persistentIndexedCache;
+        }
+        return cache.useCache(() -> cacheHandler.apply(indexedCache));
+    }
+
+    /**
+     * Closes the cache
+     * <p>
+     * The cache is opened again when it is used after it has been closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (openedCache != null) {
+            LOGGER.debug("Closing cache {}", openedCache);
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        PersistentCache cache = openedCache;
+        openedCache = null;
+        persistentIndexedCache = null;
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Retrieves a value from an opened cache
+     *
+     * @param cache The cache passed to {@link #withCache(Function)}
+     * @param key   The key to look up
+     * @return The value in the cache, or null when there is no value for the key
+     */
+    @Nullable
+    public V get(@Nonnull PersistentIndexedCache<K, V> cache, @Nonnull K key) {
+        return GradleCacheCompat.get(cache, key);
+    }
+}
@@ -0,0 +1,85 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import java.lang.reflect.Method;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+
+/**
+ * Inspects the parts of a repository configuration that gradle does not expose in its public API
+ * <p>
+ * Credentials and content filters can be configured on a repository, but can not be read back with the public API.
+ * They are read through the getters that gradle implements on its repositories. When a getter can not be called, the
+ * repository is assumed to be configured, so it is only used through gradle.
+ */
+public final class GradleRepositoryCompat {
+
+    private static final Logger LOGGER = Logging.getLogger(GradleRepositoryCompat.class);
+
+    private GradleRepositoryCompat() {
+    }
+
+    /**
+     * @param repository The repository
+     * @return Whether the repository is known to have no credentials, no authentication and no content filter
+     */
+    public static boolean isUnrestricted(@Nonnull MavenArtifactRepository repository) {
+        if (!repository.getAuthentication().isEmpty()) {
+            return false;
+        }
+        return !hasCredentials(repository) && !hasContentFilter(repository);
+    }
+
+    private static boolean hasCredentials(@Nonnull MavenArtifactRepository repository) {
+        try {
+            // Calling the public getCredentials() would configure empty credentials on the repository
+            Object credentials = invoke(repository, "getConfiguredCredentials");
+            if (credentials instanceof Provider) {
+                return ((Provider<?>) credentials).isPresent();
+            }
+            return credentials != null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Can not determine if repository {} has credentials", repository.getName(), e);
+            return true;
+        }
+    }
+
+    private static boolean hasContentFilter(@Nonnull MavenArtifactRepository repository) {
+        Method copyMethod;
+        try {
+            copyMethod = repository.getClass().getMethod("getRepositoryDescriptorCopy");
+        } catch (NoSuchMethodException e) {
+            // Before content filters existed, nothing can be filtered
+            return hasMethod(repository, "getContentFilter");
+        }
+        try {
+            // Reading the filter locks the descriptor against changes, so it is read from a copy
+            Object descriptor = copyMethod.invoke(repository);
+            Object contentFilter = invoke(descriptor, "toContentFilter");
+            Object noFilter = Class.forName("org.gradle.internal.Actions").getMethod("doNothing").invoke(null);
+            return contentFilter != null && contentFilter != noFilter;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Can not determine if repository {} has a content filter", repository.getName(), e);
+            return true;
+        }
+    }
+
+    private static boolean hasMethod(@Nonnull Object object, @Nonnull String name) {
+        try {
+            object.getClass().getMethod(name);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private static Object invoke(@Nonnull Object object, @Nonnull String name) throws ReflectiveOperationException {
+        Method method = object.getClass().getMethod(name);
+        method.setAccessible(true);
+        return method.invoke(object);
+    }
+}
@@ -7,7 +7,7 @@ import java.util.Optional;
 /**
  * Keeps a cache of dependencies for which resolving has failed, so they are not resolved every time
  */
-public interface InvalidResolvesCache {
+public interface InvalidResolvesCache extends AutoCloseable {
 
     /**
      * Places a new dependency in the failed resolves cache.
@@ -27,4 +27,11 @@ public interface InvalidResolvesCache {
      * @return A failed dependency, or {@link Optional#empty()} when no failed dependency is found or its cache time has expired
      */
     Optional<FailedDependency> get(Dependency dependency);
+
+    /**
+     * Releases the resources that are held by the cache
+     */
+    @Override
+    default void close() {
+    }
 }
@@ -0,0 +1,198 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Keeps a cache of dependencies for which resolving has failed in a {@link ShardedFileStore}
+ * <p>
+ * New failures are buffered in memory and written to the store together, when the buffer is full or when the
+ * cache is closed. Lookups see buffered failures as well.
+ * <p>
+ * Lookups ignore expired failures, but do not remove them. Every failure is stored with the time it expires for the
+ * build that wrote it, and is removed by compacting the store when the cache is closed, at most once per cache time.
+ * Builds with a shorter cache time therefore do not remove failures that builds with a longer cache time still use.
+ * Compaction can be started in the background when the cache is opened, so closing the cache only has to wait for
+ * whatever is left of it.
+ */
+public class InvalidResolvesFileCache implements InvalidResolvesCache {
+
+    private static final Logger LOGGER = Logging.getLogger(InvalidResolvesFileCache.class);
+
+    /**
+     * Number of buffered failures after which they are written to the store
+     */
+    private static final int FLUSH_THRESHOLD = 32;
+
+    @Nonnull
+    private final ShardedFileStore store;
+
+    private final long maxAge;
+
+    /**
+     * Time of failure of the failures that have not been written to the store yet
+     */
+    @Nonnull
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+
+    @Nullable
+    private CompletableFuture<Boolean> backgroundCompaction = null;
+
+    public InvalidResolvesFileCache(@Nonnull File storeDirectory) throws IOException {
+        this(storeDirectory, TimeUnit.DAYS.toMillis(1));
+    }
+
+    public InvalidResolvesFileCache(@Nonnull File storeDirectory, long maxAge) throws IOException {
+        this.store = ShardedFileStore.open(storeDirectory, "invalidResolves");
+        this.maxAge = maxAge;
+    }
+
+    @Nonnull
+    private static String createKey(@Nonnull Dependency dependency) {
+        return UpdateReport.writeDependency(dependency);
+    }
+
+    /**
+     * @return Keys of all failures in the cache, including the ones that may have expired
+     */
+    @Nonnull
+    public Set<String> keys() {
+        Set<String> keys = new HashSet<>(store.keys());
+        keys.addAll(pendingWrites.keySet());
+        return keys;
+    }
+
+    /**
+     * Writes all buffered failures to the store, compacts it when that is due, and closes it
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+            compactIfDue();
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Starts removing expired failures on a separate thread, while the cache is being used
+     * <p>
+     * The thread is not part of a thread pool that is stopped at the end of the build, because interrupting it would
+     * close the files of the store. {@link #compactIfDue()} and {@link #close()} wait until it has finished.
+     */
+    public synchronized void compactInBackground() {
+        if (backgroundCompaction != null) {
+            return;
+        }
+        backgroundCompaction = new CompletableFuture<>();
+        CompletableFuture<Boolean> compaction = backgroundCompaction;
+        Thread thread = new Thread(() -> {
+            try {
+                compaction.complete(compactNow());
+            } catch (Throwable e) {
+                compaction.completeExceptionally(e);
+            }
+        }, "plugin-updates-compaction");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Removes expired failures from the parts of the store that have not been compacted for longer than the cache time
+     * <p>
+     * When compaction has been started in the background, this waits for it to finish instead.
+     *
+     * @return Whether the store has been compacted
+     */
+    public boolean compactIfDue() {
+        CompletableFuture<Boolean> compaction;
+        synchronized (this) {
+            compaction = backgroundCompaction;
+            backgroundCompaction = null;
+        }
+        if (compaction != null) {
+            try {
+                return compaction.join();
+            } catch (CompletionException e) {
+                LOGGER.debug("Compacting in the background failed, compacting again", e.getCause());
+            }
+        }
+        return compactNow();
+    }
+
+    private boolean compactNow() {
+        long now = System.currentTimeMillis();
+        return store.compact(now - maxAge, record -> !record.isExpired(now));
+    }
+
+    private static long readFailedAt(@Nonnull byte[] value) {
+        return ByteBuffer.wrap(value).getLong();
+    }
+
+    @Override
+    public void put(Dependency dependency) {
+        LOGGER.debug("Adding failed dependency {} to cache", dependency);
+        pendingWrites.put(createKey(dependency), System.currentTimeMillis());
+        if (pendingWrites.size() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all buffered failures to the store at once
+     */
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+        Map<String, Long> writes = new HashMap<>(pendingWrites);
+        LOGGER.debug("Writing {} failed dependencies to cache", writes.size());
+        Map<String, byte[]> values = new HashMap<>(writes.size());
+        writes.forEach((key, failedAt) -> values.put(key, ByteBuffer.allocate(Long.BYTES).putLong(failedAt).array()));
+        // All failures happened before now, so none of them is used after this time
+        store.putAll(values, System.currentTimeMillis() + maxAge);
+        // Only remove entries that have not been replaced while writing
+        writes.forEach(pendingWrites::remove);
+    }
+
+    @Override
+    public Optional<FailedDependency> get(Dependency dependency) {
+        String key = createKey(dependency);
+        Long failedAt = pendingWrites.get(key);
+        if (failedAt == null) {
+            failedAt = store.get(key)
+                    .map(record -> readFailedAt(record.getValue()))
+                    .orElse(null);
+        }
+        if (failedAt == null) {
+            LOGGER.debug("Could not find failed dependency for {} in cache", dependency);
+            return Optional.empty();
+        }
+        if (failedAt <= System.currentTimeMillis() - maxAge) {
+            LOGGER.debug("Failed dependency for {} expired: {} is longer than {} ms ago", dependency, failedAt,
+                    maxAge);
+            return Optional.empty();
+        }
+        LOGGER.debug("Found failed dependency for {} in cache: {}", dependency, failedAt);
+        return Optional.of(DefaultFailedDependency.fromDependency(dependency, null));
+    }
+}
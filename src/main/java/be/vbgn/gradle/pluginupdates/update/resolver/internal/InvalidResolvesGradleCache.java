@@ -3,50 +3,47 @@ package be.vbgn.gradle.pluginupdates.update.resolver.internal;
 import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.Date;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.cache.CacheBuilder;
-import org.gradle.cache.CacheBuilder.LockTarget;
-import org.gradle.cache.CacheOpenException;
 import org.gradle.cache.CacheRepository;
-import org.gradle.cache.FileLockManager.LockMode;
-import org.gradle.cache.PersistentCache;
-import org.gradle.cache.PersistentIndexedCache;
-import org.gradle.cache.PersistentIndexedCacheParameters;
-import org.gradle.cache.internal.filelock.LockOptionsBuilder;
 
 /**
  * Keeps a cache of dependencies for which resolving has failed, so they are not resolved every time
+ * <p>
+ * New failures are buffered in memory and written to the gradle cache together, when the buffer is full or when the
+ * cache is closed. Lookups see buffered failures as well.
+ * <p>
+ * Failures are stored with the notation of the dependency as key and the time of failure in milliseconds as value.
+ * Gradle has compact serializers for both types, so keys are small and fast to compare.
  */
 public class InvalidResolvesGradleCache implements InvalidResolvesCache {
 
     private static final Logger LOGGER = Logging.getLogger(InvalidResolvesGradleCache.class);
 
     /**
-     * Cache builder that is used to create an indexed key-value cache when needed
+     * Number of buffered failures after which they are written to the gradle cache
      */
-    @Nonnull
-    private final CacheBuilder cacheBuilder;
+    private static final int FLUSH_THRESHOLD = 32;
 
-    /**
-     * Persistent indexed cache parameters for the key-value cache
-     */
     @Nonnull
-    private final PersistentIndexedCacheParameters<Dependency, Date> persistentIndexedCacheParameters;
+    private final GradleIndexedCache<String, Long> cache;
 
     @Nonnull
     private final long maxAge;
 
+    /**
+     * Time of failure of the failures that have not been written to the gradle cache yet
+     */
+    @Nonnull
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+
     public InvalidResolvesGradleCache(@Nonnull CacheRepository cacheRepository) throws CacheNotAvailableException {
         this(cacheRepository, TimeUnit.DAYS.toMillis(1));
     }
@@ -54,119 +51,73 @@ public class InvalidResolvesGradleCache implements InvalidResolvesCache {
 
     public InvalidResolvesGradleCache(@Nonnull CacheRepository cacheRepository, long maxAge)
             throws CacheNotAvailableException {
-        this.cacheBuilder = cacheRepository.cache("be.vbgn.gradle.pluginupdates")
-                .withCrossVersionCache(LockTarget.DefaultTarget)
-                .withLockOptions(LockOptionsBuilder.mode(LockMode.Exclusive))
-                .withProperties(Collections.singletonMap("cacheVersion", "2"));
+        this.cache = new GradleIndexedCache<>(cacheRepository, "invalidResolves", String.class, Long.class);
         this.maxAge = maxAge;
-        persistentIndexedCacheParameters = createIndexedCacheParameters();
     }
 
-    private PersistentIndexedCacheParameters<Dependency, Date> createIndexedCacheParameters()
-            throws CacheNotAvailableException {
-        try {
-            return createIndexedCacheParameters0();
-        } catch (ReflectiveOperationException e) {
-            throw new CacheNotAvailableException(e);
-        }
-    }
-
-    @SuppressWarnings({"unchecked", "JavaReflectionMemberAccess", "rawtypes"})
-    private PersistentIndexedCacheParameters<Dependency, Date> createIndexedCacheParameters0()
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException, InstantiationException {
-        try {
-            // For gradle 5.1+
-            Method constructionMethod = PersistentIndexedCacheParameters.class
-                    .getMethod("of", String.class, Class.class, Class.class);
-            return (PersistentIndexedCacheParameters) constructionMethod
-                    .invoke(null, "invalidResolves", Dependency.class, Date.class);
-        } catch (NoSuchMethodException e) {
-            // For gradle 4.3 - 5.0.+
-            Constructor<PersistentIndexedCacheParameters> constructionMethod = PersistentIndexedCacheParameters.class
-                    .getConstructor(String.class, Class.class, Class.class);
-            return constructionMethod.newInstance("invalidResolves", Dependency.class, Date.class);
-        }
-
+    @Nonnull
+    private static String createKey(@Nonnull Dependency dependency) {
+        return UpdateReport.writeDependency(dependency);
     }
 
     /**
-     * Runs an operation on the cache
-     * <p>
-     * Automatically opens the cache before the operation starts, and closes it after the operation has ended
-     *
-     * @param cacheHandler Function that will be run and passed a reference to the cache
-     * @param <T>          Return type of the {@code cacheHandler} function
-     * @return The value that {@code cacheHandler} returns, or null when the cache can not be opened
+     * Writes all buffered failures to the gradle cache and closes it
      */
-    @Nullable
-    private synchronized <T> T withCache(@Nonnull Function<PersistentIndexedCache<Dependency, Date>, T> cacheHandler) {
-        try (PersistentCache openedCache = cacheBuilder.open()) {
-            LOGGER.debug("Opened cache {}", openedCache);
-            PersistentIndexedCache<Dependency, Date> persistentIndexedCache = openedCache
-                    .createCache(persistentIndexedCacheParameters);
-            LOGGER.debug("Opened indexed cache {} with parameters {}", persistentIndexedCache,
-                    persistentIndexedCacheParameters);
-            return openedCache.useCache(() -> cacheHandler.apply(persistentIndexedCache));
-        } catch (CacheOpenException e) {
-            LOGGER.warn("Invalid resolves cache could not be opened. Skipping use of cache.");
-            LOGGER.debug("Full stacktrace for above warning", e);
-            return null;
-        }
+    @Override
+    public void close() {
+        flush();
+        cache.close();
     }
 
     @Override
     public void put(Dependency dependency) {
         LOGGER.debug("Adding failed dependency {} to cache", dependency);
-        withCache(cache -> {
-            cache.put(dependency, new Date());
-            return null;
-        });
-    }
-
-    @Nullable
-    private static <K, V> V cacheGet(PersistentIndexedCache<K, V> cache, Dependency dependency) {
-        try {
-            return cacheGet0(cache, dependency);
-        } catch (ReflectiveOperationException e) {
-            LOGGER.warn("Could not retrieve entry from invalid resolves cache. Skipping use of cache.");
-            LOGGER.debug("Full stacktrace for above warning", e);
-            return null;
+        pendingWrites.put(createKey(dependency), System.currentTimeMillis());
+        if (pendingWrites.size() >= FLUSH_THRESHOLD) {
+            flush();
         }
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private static <K, V> V cacheGet0(PersistentIndexedCache<K, V> cache, Dependency dependency)
-            throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-        try {
-            // Gradle 6.8+
-            Method getMethod = cache.getClass().getMethod("get", Object.class, Function.class);
-            return (V) getMethod.invoke(cache, dependency, (Function) (__ -> null));
-        } catch (NoSuchMethodException e) {
-            // Gradle 4.3 - 6.7.+
-            Method getMethod = cache.getClass().getMethod("get", Object.class);
-            return (V) getMethod.invoke(cache, dependency);
+    /**
+     * Writes all buffered failures to the gradle cache at once
+     */
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
         }
+        Map<String, Long> writes = new HashMap<>(pendingWrites);
+        LOGGER.debug("Writing {} failed dependencies to cache", writes.size());
+        cache.withCache(indexedCache -> {
+            writes.forEach(indexedCache::put);
+            return null;
+        });
+        // Only remove entries that have not been replaced while writing
+        writes.forEach(pendingWrites::remove);
     }
 
     @Override
     public Optional<FailedDependency> get(Dependency dependency) {
-        Date cacheValue = withCache(cache -> cacheGet(cache, dependency));
+        String key = createKey(dependency);
+        Long cacheValue = pendingWrites.get(key);
+        if (cacheValue == null) {
+            cacheValue = cache.withCache(indexedCache -> cache.get(indexedCache, key));
+        }
         if (cacheValue == null) {
             LOGGER.debug("Could not find failed dependency for {} in cache", dependency);
             return Optional.empty();
         }
-        if (cacheValue.getTime() <= new Date().getTime() - maxAge) {
-            LOGGER.debug("Failed dependency for {} expired: {} is longer than {} µs ago", dependency,
+        if (cacheValue <= System.currentTimeMillis() - maxAge) {
+            LOGGER.debug("Failed dependency for {} expired: {} is longer than {} ms ago", dependency,
                     cacheValue, maxAge);
-            withCache(cache -> {
-                cache.remove(dependency);
+            pendingWrites.remove(key, cacheValue);
+            cache.withCache(indexedCache -> {
+                indexedCache.remove(key);
                 return null;
             });
             return Optional.empty();
         }
         LOGGER.debug("Found failed dependency for {} in cache: {}", dependency, cacheValue);
-        return Optional.of(new DefaultFailedDependency(dependency.getGroup(), dependency.getName(),
-                dependency.getVersion().toString(), null));
+        return Optional.of(DefaultFailedDependency.fromDependency(dependency, null));
     }
 
 }
@@ -3,24 +3,101 @@ package be.vbgn.gradle.pluginupdates.update.resolver.internal;
 import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
 
+/**
+ * Keeps a cache of dependencies for which resolving has failed in memory
+ * <p>
+ * Failures expire after the same time as in the persistent caches. The number of failures is limited, when the cache
+ * is full the least recently used failures are evicted.
+ * <p>
+ * The cache is split in stripes that each have their own lock, so concurrent lookups of different dependencies
+ * rarely wait for each other.
+ */
 public class InvalidResolvesMemoryCache implements InvalidResolvesCache {
-    private Set<Dependency> failedDependencies = Collections.synchronizedSet(new HashSet<>());
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private static final int MAX_STRIPES = 16;
+
+    private final long maxAge;
+
+    @Nonnull
+    private final Stripe[] stripes;
+
+    public InvalidResolvesMemoryCache() {
+        this(TimeUnit.DAYS.toMillis(1));
+    }
+
+    public InvalidResolvesMemoryCache(long maxAge) {
+        this(maxAge, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxAge     Time in milliseconds after which failures expire
+     * @param maxEntries Maximum number of failures that are kept
+     */
+    public InvalidResolvesMemoryCache(long maxAge, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum number of entries must be at least 1, got " + maxEntries);
+        }
+        this.maxAge = maxAge;
+        stripes = new Stripe[Math.min(MAX_STRIPES, maxEntries)];
+        for (int i = 0; i < stripes.length; i++) {
+            // Spread the remainder over the first stripes, so the total is exactly the maximum
+            stripes[i] = new Stripe(maxEntries / stripes.length + (i < maxEntries % stripes.length ? 1 : 0));
+        }
+    }
+
+    @Nonnull
+    private Stripe stripe(@Nonnull Dependency dependency) {
+        int hash = dependency.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
 
     @Override
     public void put(Dependency dependency) {
-        failedDependencies.add(dependency);
+        Stripe stripe = stripe(dependency);
+        synchronized (stripe) {
+            stripe.put(dependency, System.currentTimeMillis());
+        }
     }
 
     @Override
     public Optional<FailedDependency> get(Dependency dependency) {
-        if(failedDependencies.contains(dependency)) {
-            return Optional.of(DefaultFailedDependency.fromDependency(dependency, null));
+        Stripe stripe = stripe(dependency);
+        synchronized (stripe) {
+            Long failedAt = stripe.get(dependency);
+            if (failedAt == null) {
+                return Optional.empty();
+            }
+            if (failedAt <= System.currentTimeMillis() - maxAge) {
+                stripe.remove(dependency);
+                return Optional.empty();
+            }
+        }
+        return Optional.of(DefaultFailedDependency.fromDependency(dependency, null));
+    }
+
+    /**
+     * Time of failure per dependency, in the order they have been used
+     */
+    private static final class Stripe extends LinkedHashMap<Dependency, Long> {
+
+        private final int maxEntries;
+
+        private Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Dependency, Long> eldest) {
+            return size() > maxEntries;
         }
-        return Optional.empty();
     }
 }
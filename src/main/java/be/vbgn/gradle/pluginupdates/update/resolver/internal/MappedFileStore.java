@@ -0,0 +1,629 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Persistent key-value store in a single file, that does not depend on the gradle cache API
+ * <p>
+ * The file starts with a header that holds the format version and the time the file was created, followed by records
+ * that are only ever appended. A record consists of
+ * <ul>
+ * <li>the time it was written, as a <code>long</code> in milliseconds since the epoch</li>
+ * <li>the time it expires, as a <code>long</code> in milliseconds since the epoch</li>
+ * <li>the length of the key as an <code>int</code>, followed by the UTF-8 encoded key</li>
+ * <li>the length of the value as an <code>int</code>, followed by the value, or a length of <code>-1</code> when the
+ * key has been removed</li>
+ * </ul>
+ * The last record of a key wins.
+ * <p>
+ * The file is read through a memory mapping. Only the offset of the last record of every key is kept in memory.
+ * Records that are appended by other processes are picked up on the next operation. Recently appended records are
+ * read from the file until enough has been appended to map the file again.
+ * <p>
+ * Multiple processes can use the same file: records are appended while holding an exclusive lock on the file, and new
+ * records are read while holding a shared lock.
+ * <p>
+ * Old records are removed by {@link #compact(Predicate)}, which writes the records to keep to a new file that replaces
+ * the store. A marker record is appended to the replaced file, so other processes that still have it open switch to
+ * the new file. The replaced file is never truncated, so memory mappings of it stay valid.
+ * <p>
+ * A file with a different format is never changed, because other processes may still have it mapped. Stores with a
+ * different format use a different file name, see {@link #FILE_SUFFIX}.
+ */
+public class MappedFileStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(MappedFileStore.class);
+
+    /**
+     * Version of the file format, it is changed for every incompatible change to the format
+     */
+    private static final int FORMAT_VERSION = 3;
+
+    /**
+     * Suffix for the names of files in this format, so stores with different formats never use the same file
+     */
+    public static final String FILE_SUFFIX = ".v" + FORMAT_VERSION + ".bin";
+
+    /**
+     * <code>PUS</code> followed by the format version
+     */
+    private static final int MAGIC = 0x50555300 | FORMAT_VERSION;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_OVERHEAD = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int REMOVED = -1;
+    /**
+     * Key length of the marker record that is appended when the store has been replaced by a compacted file
+     */
+    private static final int MOVED = -2;
+    private static final long LOCK_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    /**
+     * Number of bytes that can be appended to the file before it is mapped again
+     */
+    private static final int REMAP_SIZE = 1024 * 1024;
+
+    /**
+     * A value in the store, together with the time it was written and the time it expires
+     */
+    public static final class Record {
+
+        private final long timestamp;
+        private final long expiresAt;
+        @Nonnull
+        private final byte[] value;
+
+        private Record(long timestamp, long expiresAt, @Nonnull byte[] value) {
+            this.timestamp = timestamp;
+            this.expiresAt = expiresAt;
+            this.value = value;
+        }
+
+        /**
+         * @return Time the value was written, in milliseconds since the epoch
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return Time after which the value is no longer needed by the process that wrote it, in milliseconds since
+         * the epoch
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * @param now Current time in milliseconds since the epoch
+         * @return Whether the value has expired
+         */
+        public boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        @Nonnull
+        public byte[] getValue() {
+            return value;
+        }
+    }
+
+    @Nonnull
+    private final File file;
+
+    @Nonnull
+    private FileChannel channel;
+
+    /**
+     * Offset of the last record of every key
+     */
+    @Nonnull
+    private final Map<String, Long> index = new HashMap<>();
+
+    /**
+     * Position up to which records have been read into the index
+     */
+    private long indexedSize = HEADER_SIZE;
+
+    /**
+     * Time the file was created, in milliseconds since the epoch
+     */
+    private long createdAt;
+
+    @Nullable
+    private MappedByteBuffer mapping = null;
+
+    private MappedFileStore(@Nonnull File file, @Nonnull FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a store, and creates it when it does not exist yet
+     *
+     * @param file File that holds the store
+     * @return The opened store
+     * @throws IOException When the file can not be opened or locked, or has a different format
+     */
+    @Nonnull
+    public static MappedFileStore open(@Nonnull File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        MappedFileStore store = new MappedFileStore(file, openChannel(file));
+        try {
+            store.initialize();
+        } catch (IOException | RuntimeException e) {
+            store.channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    @Nonnull
+    private static FileChannel openChannel(@Nonnull File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads the header, or writes it when the file is new
+     * <p>
+     * A file with a different format is left alone, other processes may still have it mapped.
+     */
+    private void initialize() throws IOException {
+        withLock(false, () -> {
+            if (channel.size() >= HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                header.flip();
+                if (header.getInt() != MAGIC) {
+                    throw new IOException("Store " + file + " has an unknown format");
+                }
+                createdAt = header.getLong();
+                return null;
+            }
+            // The file is new, or its header was never completely written, so nobody can be using it
+            channel.truncate(0);
+            createdAt = System.currentTimeMillis();
+            channel.write(createHeader(createdAt), 0);
+            return null;
+        });
+    }
+
+    @Nonnull
+    private static ByteBuffer createHeader(long createdAt) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putLong(createdAt);
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Switches to the file that has replaced the file that is currently open
+     */
+    private void reopen() throws IOException {
+        LOGGER.debug("Store {} has been compacted, reopening it", file);
+        channel.close();
+        index.clear();
+        indexedSize = HEADER_SIZE;
+        mapping = null;
+        channel = openChannel(file);
+        initialize();
+    }
+
+    /**
+     * @return Time the store was created or last compacted, in milliseconds since the epoch
+     */
+    public synchronized long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Reads the last value of a key
+     *
+     * @param key The key to look up
+     * @return The value, or {@link Optional#empty()} when there is no value for the key
+     */
+    @Nonnull
+    public synchronized Optional<Record> get(@Nonnull String key) {
+        try {
+            refresh();
+            Long offset = index.get(key);
+            if (offset == null) {
+                return Optional.empty();
+            }
+            return Optional.of(readRecord(offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read from " + file, e);
+        }
+    }
+
+    /**
+     * @return All keys that currently have a value
+     */
+    @Nonnull
+    public synchronized Set<String> keys() {
+        try {
+            refresh();
+            return new HashSet<>(index.keySet());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read from " + file, e);
+        }
+    }
+
+    /**
+     * @return Size of the file, in bytes
+     */
+    public synchronized long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read from " + file, e);
+        }
+    }
+
+    /**
+     * Writes a value for a key that never expires
+     *
+     * @param key   The key
+     * @param value The value
+     */
+    public void put(@Nonnull String key, @Nonnull byte[] value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes a value for a key
+     *
+     * @param key       The key
+     * @param value     The value
+     * @param expiresAt Time after which the value is no longer needed, in milliseconds since the epoch
+     */
+    public void put(@Nonnull String key, @Nonnull byte[] value, long expiresAt) {
+        putAll(Collections.singletonMap(key, value), expiresAt);
+    }
+
+    /**
+     * Writes values for multiple keys at once
+     *
+     * @param values    Values per key
+     * @param expiresAt Time after which the values are no longer needed, in milliseconds since the epoch
+     */
+    public synchronized void putAll(@Nonnull Map<String, byte[]> values, long expiresAt) {
+        if (values.isEmpty()) {
+            return;
+        }
+        append(values, expiresAt);
+    }
+
+    /**
+     * Removes the value of a key
+     *
+     * @param key The key
+     */
+    public synchronized void remove(@Nonnull String key) {
+        append(Collections.singletonMap(key, null), 0);
+    }
+
+    @Override
+    public synchronized void close() {
+        mapping = null;
+        index.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close {}", file, e);
+        }
+    }
+
+    /**
+     * Appends records for all values, where a null value removes the key
+     */
+    private void append(@Nonnull Map<String, byte[]> values, long expiresAt) {
+        long timestamp = System.currentTimeMillis();
+        int size = 0;
+        Map<String, byte[]> encodedKeys = new HashMap<>(values.size());
+        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+            byte[] encodedKey = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            encodedKeys.put(entry.getKey(), encodedKey);
+            size += RECORD_OVERHEAD + encodedKey.length + (entry.getValue() != null ? entry.getValue().length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        Map<String, Integer> relativeOffsets = new HashMap<>(values.size());
+        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+            byte[] encodedKey = encodedKeys.get(entry.getKey());
+            relativeOffsets.put(entry.getKey(), buffer.position());
+            buffer.putLong(timestamp);
+            buffer.putLong(expiresAt);
+            buffer.putInt(encodedKey.length);
+            buffer.put(encodedKey);
+            if (entry.getValue() != null) {
+                buffer.putInt(entry.getValue().length);
+                buffer.put(entry.getValue());
+            } else {
+                buffer.putInt(REMOVED);
+            }
+        }
+        buffer.flip();
+        try {
+            while (!withLock(false, () -> {
+                if (scan()) {
+                    return false;
+                }
+                long position = appendAtEnd(buffer);
+                long start = indexedSize;
+                relativeOffsets.forEach((key, offset) -> {
+                    if (values.get(key) != null) {
+                        index.put(key, start + offset);
+                    } else {
+                        index.remove(key);
+                    }
+                });
+                indexedSize = position;
+                return true;
+            })) {
+                reopen();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not write to " + file, e);
+        }
+    }
+
+    /**
+     * Writes a buffer after the last complete record, overwriting anything that is left over from an interrupted write
+     * <p>
+     * Must be called while holding an exclusive lock on the file, after {@link #scan()}
+     *
+     * @return Position after the written buffer
+     */
+    private long appendAtEnd(@Nonnull ByteBuffer buffer) throws IOException {
+        if (channel.size() > indexedSize) {
+            channel.truncate(indexedSize);
+        }
+        long position = indexedSize;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    /**
+     * Removes all records that should not be kept, by replacing the store with a new file that only contains the
+     * records to keep
+     * <p>
+     * Compaction is skipped when the store can not be replaced, for example because the file system does not allow
+     * replacing a file that is open.
+     *
+     * @param keep Whether a record is kept
+     * @return Whether the store has been compacted
+     */
+    public synchronized boolean compact(@Nonnull Predicate<Record> keep) {
+        Path path = file.toPath();
+        try {
+            boolean compacted = withLock(false, () -> {
+                if (scan()) {
+                    // Already compacted by another process
+                    return false;
+                }
+                Path compactedFile = Files.createTempFile(path.getParent(), file.getName(), ".tmp");
+                try {
+                    int kept = 0;
+                    try (FileChannel compactedChannel = FileChannel
+                            .open(compactedFile, StandardOpenOption.WRITE)) {
+                        long position = compactedChannel.write(createHeader(System.currentTimeMillis()), 0);
+                        for (Map.Entry<String, Long> entry : index.entrySet()) {
+                            Record record = readRecord(entry.getValue());
+                            if (keep.test(record)) {
+                                ByteBuffer buffer = encodeRecord(record.getTimestamp(), record.getExpiresAt(),
+                                        entry.getKey().getBytes(StandardCharsets.UTF_8), record.getValue());
+                                while (buffer.hasRemaining()) {
+                                    position += compactedChannel.write(buffer, position);
+                                }
+                                kept++;
+                            }
+                        }
+                        compactedChannel.force(true);
+                    }
+                    Files.move(compactedFile, path, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    LOGGER.debug("Compacted store {} from {} to {} records", file, index.size(), kept);
+                } finally {
+                    Files.deleteIfExists(compactedFile);
+                }
+                // Processes that still have the replaced file open switch to the compacted file
+                ByteBuffer marker = ByteBuffer.allocate(RECORD_OVERHEAD);
+                marker.putLong(System.currentTimeMillis());
+                marker.putLong(0);
+                marker.putInt(MOVED);
+                marker.putInt(0);
+                marker.flip();
+                indexedSize = appendAtEnd(marker);
+                return true;
+            });
+            reopen();
+            return compacted;
+        } catch (IOException e) {
+            LOGGER.debug("Could not compact store {}", file, e);
+            return false;
+        }
+    }
+
+    @Nonnull
+    private static ByteBuffer encodeRecord(long timestamp, long expiresAt, @Nonnull byte[] encodedKey,
+            @Nonnull byte[] value) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_OVERHEAD + encodedKey.length + value.length);
+        buffer.putLong(timestamp);
+        buffer.putLong(expiresAt);
+        buffer.putInt(encodedKey.length);
+        buffer.put(encodedKey);
+        buffer.putInt(value.length);
+        buffer.put(value);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Reads the records that have been appended since the last time, by this or by another process
+     */
+    private void refresh() throws IOException {
+        while (channel.size() > indexedSize) {
+            if (withLock(true, this::scan)) {
+                reopen();
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds all complete records after {@link #indexedSize} to the index
+     * <p>
+     * Must be called while holding a lock on the file
+     *
+     * @return Whether the file has been replaced by a compacted file
+     */
+    private boolean scan() throws IOException {
+        long size = channel.size();
+        if (size <= indexedSize) {
+            return false;
+        }
+        ByteBuffer buffer = region(indexedSize, size - indexedSize);
+        int available = buffer.limit();
+        // Position relative to indexedSize
+        int position = 0;
+        while (position + RECORD_OVERHEAD <= available) {
+            buffer.position(position + Long.BYTES + Long.BYTES);
+            int keyLength = buffer.getInt();
+            if (keyLength == MOVED) {
+                return true;
+            }
+            if (keyLength < 0 || (long) position + RECORD_OVERHEAD + keyLength > available) {
+                break;
+            }
+            byte[] encodedKey = new byte[keyLength];
+            buffer.get(encodedKey);
+            int valueLength = buffer.getInt();
+            long end = (long) position + RECORD_OVERHEAD + keyLength + Math.max(valueLength, 0);
+            if (valueLength < REMOVED || end > available) {
+                break;
+            }
+            String key = new String(encodedKey, StandardCharsets.UTF_8);
+            if (valueLength == REMOVED) {
+                index.remove(key);
+            } else {
+                index.put(key, indexedSize + position);
+            }
+            position = (int) end;
+        }
+        indexedSize += position;
+        return false;
+    }
+
+    @Nonnull
+    private Record readRecord(long offset) throws IOException {
+        ByteBuffer header = region(offset, Long.BYTES + Long.BYTES + Integer.BYTES);
+        long timestamp = header.getLong();
+        long expiresAt = header.getLong();
+        long valueOffset = offset + Long.BYTES + Long.BYTES + Integer.BYTES + header.getInt();
+        int valueLength = region(valueOffset, Integer.BYTES).getInt();
+        byte[] value = new byte[valueLength];
+        region(valueOffset + Integer.BYTES, valueLength).get(value);
+        return new Record(timestamp, expiresAt, value);
+    }
+
+    /**
+     * Gives access to a region of the file
+     * <p>
+     * Regions that are covered by the memory mapping are read from it. Regions after the mapping are read from the
+     * file, until the file has grown more than {@link #REMAP_SIZE} past the mapping. Only then the file is mapped again,
+     * so appending a few records does not create a new mapping every time.
+     *
+     * @return Buffer with the contents of the region, positioned at the start of the region
+     */
+    @Nonnull
+    private ByteBuffer region(long position, long size) throws IOException {
+        long end = position + size;
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Store " + file + " is too large");
+        }
+        if (mapping == null || end > mapping.capacity() + REMAP_SIZE) {
+            mapping = channel.map(MapMode.READ_ONLY, 0, end);
+        }
+        if (end <= mapping.capacity()) {
+            ByteBuffer region = mapping.duplicate();
+            region.limit((int) end).position((int) position);
+            return region.slice();
+        }
+        ByteBuffer region = ByteBuffer.allocate((int) size);
+        while (region.hasRemaining()) {
+            if (channel.read(region, position + region.position()) < 0) {
+                throw new IOException("Store " + file + " ends before position " + end);
+            }
+        }
+        region.flip();
+        return region;
+    }
+
+    @FunctionalInterface
+    private interface LockedOperation<T> {
+
+        T run() throws IOException;
+    }
+
+    /**
+     * Runs an operation while holding a lock on the file
+     * <p>
+     * The lock can also be held by another store for the same file in this JVM, for example from a plugin that is loaded
+     * in another classloader. Locking is retried until the lock is released or the timeout has passed.
+     *
+     * @param shared Whether a shared lock is sufficient
+     */
+    private <T> T withLock(boolean shared, @Nonnull LockedOperation<T> operation) throws IOException {
+        long deadline = System.currentTimeMillis() + LOCK_TIMEOUT;
+        while (true) {
+            FileLock lock;
+            try {
+                lock = channel.lock(0, Long.MAX_VALUE, shared);
+            } catch (OverlappingFileLockException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Timed out waiting for lock on " + file, e);
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for lock on " + file, interruptedException);
+                }
+                continue;
+            }
+            try {
+                return operation.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.version.Version;
+import be.vbgn.gradle.pluginupdates.version.VersionIndex;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Lists all versions of a module that are available in a set of Maven repositories
+ * <p>
+ * The <code>maven-metadata.xml</code> of a module is fetched only once from every repository, all later lookups for the
+ * same module are answered from memory by a {@link VersionIndex}.
+ * <p>
+ * Metadata is fetched outside of the map that holds the versions, every module has a future that completes when its
+ * metadata has been fetched. Lookups for a module that is being fetched wait for that fetch, lookups for other modules
+ * do not.
+ */
+public class MavenMetadataVersionLister implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(MavenMetadataVersionLister.class);
+    private static final int TIMEOUT = (int) TimeUnit.SECONDS.toMillis(30);
+
+    @Nonnull
+    private final List<URI> repositories;
+
+    @Nonnull
+    private final ConcurrentMap<String, CompletableFuture<Optional<VersionIndex>>> versionsPerModule =
+            new ConcurrentHashMap<>();
+
+    /**
+     * @param repositories Base URLs of the Maven repositories to list versions from
+     */
+    public MavenMetadataVersionLister(@Nonnull List<URI> repositories) {
+        this.repositories = new ArrayList<>(repositories.size());
+        for (URI repository : repositories) {
+            this.repositories.add(repository.toString().endsWith("/") ? repository : URI.create(repository + "/"));
+        }
+    }
+
+    /**
+     * Checks if the repository can be read by this lister
+     *
+     * @param repository The base URL of a Maven repository
+     */
+    public static boolean isSupported(@Nonnull URI repository) {
+        String scheme = repository.getScheme();
+        return "http".equals(scheme) || "https".equals(scheme) || "file".equals(scheme);
+    }
+
+    /**
+     * A URL connection uses the proxy from the system properties, but can not authenticate to it
+     *
+     * @return Whether repositories can be read without proxy authentication
+     */
+    public static boolean canConnectDirectly() {
+        return System.getProperty("http.proxyUser") == null && System.getProperty("https.proxyUser") == null;
+    }
+
+    /**
+     * Lists all versions of a module that are present in any of the repositories
+     *
+     * @param module The module to list versions for
+     * @return Index of all versions of the module, or {@link Optional#empty()} when the versions could not be listed from all repositories
+     * or no repository has maven metadata for the module
+     */
+    @Nonnull
+    public Optional<VersionIndex> listVersions(@Nonnull ModuleIdentifier module) {
+        try {
+            return fetchOnce(module.getGroup() + ":" + module.getName(), module).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fetches the versions of a module, unless they are already being fetched
+     *
+     * @return Future that completes when the versions of the module have been fetched
+     */
+    @Nonnull
+    private CompletableFuture<Optional<VersionIndex>> fetchOnce(@Nonnull String key,
+            @Nonnull ModuleIdentifier module) {
+        CompletableFuture<Optional<VersionIndex>> versions = versionsPerModule.get(key);
+        if (versions != null) {
+            return versions;
+        }
+        CompletableFuture<Optional<VersionIndex>> fetchedVersions = new CompletableFuture<>();
+        versions = versionsPerModule.putIfAbsent(key, fetchedVersions);
+        if (versions != null) {
+            return versions;
+        }
+        try {
+            fetchedVersions.complete(fetchVersions(module));
+        } catch (RuntimeException | Error e) {
+            // A later lookup tries again
+            versionsPerModule.remove(key, fetchedVersions);
+            fetchedVersions.completeExceptionally(e);
+        }
+        return fetchedVersions;
+    }
+
+    /**
+     * Fetches the versions of multiple modules at the same time, and waits until they have been fetched
+     * <p>
+     * The fetching threads only read maven metadata, they do not use any gradle services. Modules whose versions have
+     * already been listed are not fetched again.
+     *
+     * @param modules     The modules that will be listed
+     * @param parallelism Maximum number of modules that are fetched at the same time
+     */
+    public void prefetch(@Nonnull Collection<? extends ModuleIdentifier> modules, int parallelism) {
+        if (parallelism < 2) {
+            // Nothing to gain, the versions are fetched when they are listed
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "plugin-updates-metadata");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            prefetch(modules, parallelism, executorService).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts fetching the versions of multiple modules on an executor
+     * <p>
+     * The fetching tasks only read maven metadata, they do not use any gradle services. Modules whose versions have
+     * already been listed are not fetched again.
+     *
+     * @param modules     The modules that will be listed
+     * @param parallelism Maximum number of modules that are fetched at the same time
+     * @param executor    Executor that runs the fetching tasks
+     * @return Future that completes when the versions of all modules have been fetched
+     */
+    @Nonnull
+    public CompletableFuture<Void> prefetch(@Nonnull Collection<? extends ModuleIdentifier> modules, int parallelism,
+            @Nonnull Executor executor) {
+        Map<String, ModuleIdentifier> missingModules = new LinkedHashMap<>();
+        for (ModuleIdentifier module : modules) {
+            String key = module.getGroup() + ":" + module.getName();
+            if (!versionsPerModule.containsKey(key)) {
+                missingModules.putIfAbsent(key, module);
+            }
+        }
+        if (missingModules.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int taskCount = Math.min(parallelism, missingModules.size());
+        LOGGER.debug("Fetching versions of {} modules with {} tasks", missingModules.size(), taskCount);
+        // Every task takes modules from the queue until it is empty, so no more than taskCount modules are fetched
+        // at the same time, whatever the size of the executor
+        Queue<Map.Entry<String, ModuleIdentifier>> queue = new ConcurrentLinkedQueue<>(missingModules.entrySet());
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                Map.Entry<String, ModuleIdentifier> entry;
+                while ((entry = queue.poll()) != null) {
+                    fetchOnce(entry.getKey(), entry.getValue()).join();
+                }
+            }, executor);
+        }
+        return CompletableFuture.allOf(tasks);
+    }
+
+    /**
+     * Forgets all listed versions
+     */
+    @Override
+    public void close() {
+        versionsPerModule.clear();
+    }
+
+    @Nonnull
+    private Optional<VersionIndex> fetchVersions(@Nonnull ModuleIdentifier module) {
+        Set<Version> versions = new LinkedHashSet<>();
+        boolean metadataFound = false;
+        String modulePath = module.getGroup().replace('.', '/') + "/" + module.getName() + "/";
+        for (URI repository : repositories) {
+            try {
+                List<URI> metadataUris = new ArrayList<>(2);
+                metadataUris.add(repository.resolve(modulePath + "maven-metadata.xml"));
+                if ("file".equals(repository.getScheme())) {
+                    // Maven local repositories use a different filename for their metadata
+                    metadataUris.add(repository.resolve(modulePath + "maven-metadata-local.xml"));
+                }
+                for (URI metadataUri : metadataUris) {
+                    Optional<List<Version>> metadataVersions = readMetadata(metadataUri);
+                    if (metadataVersions.isPresent()) {
+                        metadataFound = true;
+                        versions.addAll(metadataVersions.get());
+                    }
+                }
+            } catch (IOException | ParserConfigurationException | SAXException e) {
+                LOGGER.info("Could not list versions of {} from {}: {}", module, repository, e.getMessage());
+                LOGGER.debug("Full exception for above message", e);
+                return Optional.empty();
+            }
+        }
+        if (!metadataFound) {
+            // Modules without maven metadata, like modules that only have an ivy descriptor, are left to gradle
+            LOGGER.debug("No maven metadata for {} in {}", module, repositories);
+            return Optional.empty();
+        }
+        LOGGER.debug("Versions of {} in {}: {}", module, repositories, versions);
+        return Optional.of(VersionIndex.of(versions));
+    }
+
+    /**
+     * @return The versions listed in the metadata, or {@link Optional#empty()} when the metadata does not exist
+     */
+    @Nonnull
+    private static Optional<List<Version>> readMetadata(@Nonnull URI metadataUri)
+            throws IOException, ParserConfigurationException, SAXException {
+        LOGGER.debug("Reading maven metadata {}", metadataUri);
+        URLConnection connection = metadataUri.toURL().openConnection();
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        if (connection instanceof HttpURLConnection) {
+            int responseCode = ((HttpURLConnection) connection).getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                return Optional.empty();
+            } else if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode + " for " + metadataUri);
+            }
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            return Optional.of(parseMetadata(inputStream));
+        } catch (FileNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Nonnull
+    static List<Version> parseMetadata(@Nonnull InputStream inputStream)
+            throws IOException, ParserConfigurationException, SAXException {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        documentBuilderFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        Document document = documentBuilder.parse(inputStream);
+
+        List<Version> versions = new ArrayList<>();
+        NodeList versionLists = document.getElementsByTagName("versions");
+        for (int i = 0; i < versionLists.getLength(); i++) {
+            NodeList children = versionLists.item(i).getChildNodes();
+            for (int j = 0; j < children.getLength(); j++) {
+                Node child = children.item(j);
+                if (child instanceof Element && "version".equals(child.getNodeName())) {
+                    String version = child.getTextContent().trim();
+                    if (!version.isEmpty()) {
+                        try {
+                            versions.add(Version.parse(version));
+                        } catch (IllegalArgumentException e) {
+                            // Versions like 1.0.0+build.5 can never be an update, they are left out
+                            LOGGER.debug("Skipping version {} that can not be parsed: {}", version, e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,38 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps a cache of successfully resolved dependencies, so they are not resolved every time
+ */
+public interface ResolvedVersionsCache extends AutoCloseable {
+
+    /**
+     * Places the result of a successful resolve in the cache
+     *
+     * @param repositories Fingerprint of the repositories that the dependency was resolved from
+     * @param dependency   The dependency that was resolved
+     * @param resolved     The dependencies that the dependency resolved to
+     */
+    void put(String repositories, Dependency dependency, List<Dependency> resolved);
+
+    /**
+     * Tries to fetch the result of an earlier successful resolve from cache
+     * <p>
+     * Results are only kept for a limited time, and are cleaned up after they have expired.
+     *
+     * @param repositories Fingerprint of the repositories that the dependency is resolved from
+     * @param dependency   The dependency to look up
+     * @return The dependencies that the dependency resolved to, or {@link Optional#empty()} when no result is found or its cache time has expired
+     */
+    Optional<List<Dependency>> get(String repositories, Dependency dependency);
+
+    /**
+     * Releases the resources that are held by the cache
+     */
+    @Override
+    default void close() {
+    }
+}
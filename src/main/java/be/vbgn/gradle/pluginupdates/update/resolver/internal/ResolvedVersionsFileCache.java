@@ -0,0 +1,108 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Keeps a cache of successfully resolved dependencies in a {@link ShardedFileStore}
+ * <p>
+ * The resolved dependencies are stored as their notations, separated by tabs.
+ * <p>
+ * Expired entries are removed by compacting the store when the cache is closed, at most once per cache time.
+ */
+public class ResolvedVersionsFileCache implements ResolvedVersionsCache {
+
+    private static final Logger LOGGER = Logging.getLogger(ResolvedVersionsFileCache.class);
+    private static final String SEPARATOR = "\t";
+
+    @Nonnull
+    private final ShardedFileStore store;
+
+    private final long maxAge;
+
+    public ResolvedVersionsFileCache(@Nonnull File storeDirectory) throws IOException {
+        this(storeDirectory, TimeUnit.DAYS.toMillis(1));
+    }
+
+    public ResolvedVersionsFileCache(@Nonnull File storeDirectory, long maxAge) throws IOException {
+        this.store = ShardedFileStore.open(storeDirectory, "resolvedVersions");
+        this.maxAge = maxAge;
+    }
+
+    @Nonnull
+    private static String createKey(@Nonnull String repositories, @Nonnull Dependency dependency) {
+        return repositories + "/" + UpdateReport.writeDependency(dependency);
+    }
+
+    /**
+     * Compacts the store when that is due, and closes it
+     */
+    @Override
+    public void close() {
+        try {
+            compactIfDue();
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Removes expired entries from the parts of the store that have not been compacted for longer than the cache time
+     *
+     * @return Whether the store has been compacted
+     */
+    public boolean compactIfDue() {
+        long now = System.currentTimeMillis();
+        return store.compact(now - maxAge, record -> !record.isExpired(now));
+    }
+
+    @Override
+    public void put(String repositories, Dependency dependency, List<Dependency> resolved) {
+        LOGGER.debug("Adding resolved dependency {} to cache: {}", dependency, resolved);
+        String value = resolved.stream().map(UpdateReport::writeDependency).collect(Collectors.joining(SEPARATOR));
+        store.put(createKey(repositories, dependency), value.getBytes(StandardCharsets.UTF_8),
+                System.currentTimeMillis() + maxAge);
+    }
+
+    @Override
+    public Optional<List<Dependency>> get(String repositories, Dependency dependency) {
+        String key = createKey(repositories, dependency);
+        Optional<MappedFileStore.Record> record = store.get(key);
+        if (!record.isPresent()) {
+            LOGGER.debug("Could not find resolved dependency for {} in cache", dependency);
+            return Optional.empty();
+        }
+        if (record.get().getTimestamp() <= System.currentTimeMillis() - maxAge) {
+            LOGGER.debug("Resolved dependency for {} expired: {} is longer than {} ms ago", dependency,
+                    record.get().getTimestamp(), maxAge);
+            store.remove(key);
+            return Optional.empty();
+        }
+        String value = new String(record.get().getValue(), StandardCharsets.UTF_8);
+        List<Dependency> dependencies = new ArrayList<>();
+        try {
+            for (String notation : value.split(SEPARATOR)) {
+                if (!notation.isEmpty()) {
+                    dependencies.add(UpdateReport.readDependency(notation));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Resolved dependency for {} can not be read from cache", dependency, e);
+            return Optional.empty();
+        }
+        LOGGER.debug("Found resolved dependency for {} in cache: {}", dependency, dependencies);
+        return Optional.of(Collections.unmodifiableList(dependencies));
+    }
+}
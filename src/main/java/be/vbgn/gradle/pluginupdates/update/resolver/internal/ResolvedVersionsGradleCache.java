@@ -0,0 +1,108 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+
+/**
+ * Keeps a cache of successfully resolved dependencies, so they are not resolved every time
+ * <p>
+ * Resolved dependencies are stored as their notations, which are much smaller than serialized dependency objects.
+ */
+public class ResolvedVersionsGradleCache implements ResolvedVersionsCache {
+
+    private static final Logger LOGGER = Logging.getLogger(ResolvedVersionsGradleCache.class);
+
+    @Nonnull
+    private final GradleIndexedCache<String, Entry> cache;
+
+    private final long maxAge;
+
+    public ResolvedVersionsGradleCache(@Nonnull CacheRepository cacheRepository) throws CacheNotAvailableException {
+        this(cacheRepository, TimeUnit.DAYS.toMillis(1));
+    }
+
+    public ResolvedVersionsGradleCache(@Nonnull CacheRepository cacheRepository, long maxAge)
+            throws CacheNotAvailableException {
+        this.cache = new GradleIndexedCache<>(cacheRepository, "resolvedVersions", String.class, Entry.class);
+        this.maxAge = maxAge;
+    }
+
+    @Nonnull
+    private static String createKey(@Nonnull String repositories, @Nonnull Dependency dependency) {
+        return repositories + "/" + dependency;
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    @Override
+    public void put(String repositories, Dependency dependency, List<Dependency> resolved) {
+        LOGGER.debug("Adding resolved dependency {} to cache: {}", dependency, resolved);
+        Entry entry = new Entry(System.currentTimeMillis(), resolved);
+        cache.withCache(indexedCache -> {
+            indexedCache.put(createKey(repositories, dependency), entry);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<List<Dependency>> get(String repositories, Dependency dependency) {
+        String key = createKey(repositories, dependency);
+        Entry cacheValue = cache.withCache(indexedCache -> cache.get(indexedCache, key));
+        if (cacheValue == null) {
+            LOGGER.debug("Could not find resolved dependency for {} in cache", dependency);
+            return Optional.empty();
+        }
+        if (cacheValue.resolvedAt <= System.currentTimeMillis() - maxAge) {
+            LOGGER.debug("Resolved dependency for {} expired: {} is longer than {} ms ago", dependency,
+                    cacheValue.resolvedAt, maxAge);
+            cache.withCache(indexedCache -> {
+                indexedCache.remove(key);
+                return null;
+            });
+            return Optional.empty();
+        }
+        List<Dependency> dependencies = new ArrayList<>(cacheValue.notations.size());
+        try {
+            for (String notation : cacheValue.notations) {
+                dependencies.add(UpdateReport.readDependency(notation));
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Resolved dependency for {} can not be read from cache", dependency, e);
+            return Optional.empty();
+        }
+        LOGGER.debug("Found resolved dependency for {} in cache: {}", dependency, dependencies);
+        return Optional.of(Collections.unmodifiableList(dependencies));
+    }
+
+    /**
+     * Value that is stored in the cache
+     */
+    static final class Entry implements Serializable {
+
+        private final long resolvedAt;
+        @Nonnull
+        private final ArrayList<String> notations;
+
+        private Entry(long resolvedAt, @Nonnull List<Dependency> dependencies) {
+            this.resolvedAt = resolvedAt;
+            this.notations = dependencies.stream()
+                    .map(UpdateReport::writeDependency)
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ResolvedVersionsMemoryCache implements ResolvedVersionsCache {
+
+    private Map<String, List<Dependency>> resolvedDependencies = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String repositories, Dependency dependency, List<Dependency> resolved) {
+        resolvedDependencies.put(repositories + "/" + dependency,
+                Collections.unmodifiableList(new ArrayList<>(resolved)));
+    }
+
+    @Override
+    public Optional<List<Dependency>> get(String repositories, Dependency dependency) {
+        return Optional.ofNullable(resolvedDependencies.get(repositories + "/" + dependency));
+    }
+}
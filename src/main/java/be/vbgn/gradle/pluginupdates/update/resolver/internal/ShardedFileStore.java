@@ -0,0 +1,201 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.MappedFileStore.Record;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Persistent key-value store that is split over multiple {@link MappedFileStore}s
+ * <p>
+ * Every shard has its own file and its own file lock, so builds that write to different shards at the same time do
+ * not wait for each other. Keys are assigned to a shard by the part before the first <code>:</code>, which is the
+ * module group for dependency notations, so all keys of a module group end up in the same shard.
+ * <p>
+ * Shards are compacted when they have not been compacted for a while, or when they have grown too large.
+ */
+public class ShardedFileStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(ShardedFileStore.class);
+
+    public static final int DEFAULT_SHARDS = 8;
+
+    /**
+     * Size in bytes above which a shard is compacted, no matter when it was last compacted
+     */
+    private static final long MAX_SHARD_SIZE = 64L * 1024 * 1024;
+
+    @Nonnull
+    private final MappedFileStore[] shards;
+
+    private ShardedFileStore(@Nonnull MappedFileStore[] shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Opens a store with the default number of shards
+     *
+     * @see #open(File, String, int)
+     */
+    @Nonnull
+    public static ShardedFileStore open(@Nonnull File directory, @Nonnull String name) throws IOException {
+        return open(directory, name, DEFAULT_SHARDS);
+    }
+
+    /**
+     * Opens a store, and creates it when it does not exist yet
+     *
+     * @param directory Directory that holds the files of the store
+     * @param name      Name of the store, every shard is stored in a file that starts with this name
+     * @param numShards Number of shards
+     * @return The opened store
+     * @throws IOException When a shard can not be opened
+     */
+    @Nonnull
+    public static ShardedFileStore open(@Nonnull File directory, @Nonnull String name, int numShards)
+            throws IOException {
+        if (!shardFile(directory, name, 0).exists()) {
+            removeLegacyFiles(directory, name, numShards);
+        }
+        MappedFileStore[] shards = new MappedFileStore[numShards];
+        try {
+            for (int i = 0; i < numShards; i++) {
+                shards[i] = MappedFileStore.open(shardFile(directory, name, i));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (MappedFileStore shard : shards) {
+                if (shard != null) {
+                    shard.close();
+                }
+            }
+            throw e;
+        }
+        return new ShardedFileStore(shards);
+    }
+
+    /**
+     * Removes the files of the store from before its files had a format version in their name
+     * <p>
+     * This only happens once, when the store is first opened with the current format. Afterwards, older versions of
+     * the plugin may create and use these files again without them being removed from under them.
+     */
+    private static void removeLegacyFiles(@Nonnull File directory, @Nonnull String name, int numShards) {
+        List<File> legacyFiles = new ArrayList<>(numShards + 1);
+        // Left over from before the store was sharded
+        legacyFiles.add(new File(directory, name + ".bin"));
+        for (int i = 0; i < numShards; i++) {
+            legacyFiles.add(new File(directory, name + "-" + i + ".bin"));
+        }
+        for (File legacyFile : legacyFiles) {
+            try {
+                if (Files.deleteIfExists(legacyFile.toPath())) {
+                    LOGGER.debug("Removed store {} with an older format", legacyFile);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not remove store {} with an older format", legacyFile, e);
+            }
+        }
+    }
+
+    @Nonnull
+    static File shardFile(@Nonnull File directory, @Nonnull String name, int shard) {
+        return new File(directory, name + "-" + shard + MappedFileStore.FILE_SUFFIX);
+    }
+
+    @Nonnull
+    private MappedFileStore shard(@Nonnull String key) {
+        int separator = key.indexOf(':');
+        String shardKey = separator >= 0 ? key.substring(0, separator) : key;
+        return shards[Math.floorMod(shardKey.hashCode(), shards.length)];
+    }
+
+    /**
+     * @see MappedFileStore#get(String)
+     */
+    @Nonnull
+    public Optional<Record> get(@Nonnull String key) {
+        return shard(key).get(key);
+    }
+
+    /**
+     * @see MappedFileStore#put(String, byte[])
+     */
+    public void put(@Nonnull String key, @Nonnull byte[] value) {
+        shard(key).put(key, value);
+    }
+
+    /**
+     * @see MappedFileStore#put(String, byte[], long)
+     */
+    public void put(@Nonnull String key, @Nonnull byte[] value, long expiresAt) {
+        shard(key).put(key, value, expiresAt);
+    }
+
+    /**
+     * Writes values for multiple keys, with a single write for every shard
+     *
+     * @see MappedFileStore#putAll(Map, long)
+     */
+    public void putAll(@Nonnull Map<String, byte[]> values, long expiresAt) {
+        Map<MappedFileStore, Map<String, byte[]>> valuesPerShard = new HashMap<>();
+        values.forEach((key, value) -> valuesPerShard.computeIfAbsent(shard(key), shard -> new HashMap<>())
+                .put(key, value));
+        valuesPerShard.forEach((shard, shardValues) -> shard.putAll(shardValues, expiresAt));
+    }
+
+    /**
+     * @see MappedFileStore#remove(String)
+     */
+    public void remove(@Nonnull String key) {
+        shard(key).remove(key);
+    }
+
+    /**
+     * @return All keys that currently have a value
+     */
+    @Nonnull
+    public Set<String> keys() {
+        Set<String> keys = new HashSet<>();
+        for (MappedFileStore shard : shards) {
+            keys.addAll(shard.keys());
+        }
+        return keys;
+    }
+
+    /**
+     * Compacts the shards that have not been compacted since a certain time, and the shards that have grown too large
+     *
+     * @param compactedBefore Time in milliseconds since the epoch. Shards that have been created or compacted before
+     *                        this time are compacted.
+     * @param keep            Whether a record is kept
+     * @return Whether any shard has been compacted
+     * @see MappedFileStore#compact(Predicate)
+     */
+    public boolean compact(long compactedBefore, @Nonnull Predicate<Record> keep) {
+        boolean compacted = false;
+        for (MappedFileStore shard : shards) {
+            if (shard.getCreatedAt() <= compactedBefore || shard.size() > MAX_SHARD_SIZE) {
+                compacted |= shard.compact(keep);
+            }
+        }
+        return compacted;
+    }
+
+    @Override
+    public void close() {
+        for (MappedFileStore shard : shards) {
+            shard.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Puts an in-memory cache and a {@link BloomFilter} in front of a persistent {@link InvalidResolvesCache}
+ * <p>
+ * Most dependencies have never failed to resolve. The bloom filter contains the keys of all failures in the persistent
+ * cache, so lookups for those dependencies are answered without reading the persistent cache. Lookups that do reach
+ * the persistent cache are remembered in memory for the rest of the build.
+ * <p>
+ * The bloom filter is stored next to the persistent cache. It is read when the cache is created, and new keys are
+ * merged into the stored filter when the cache is closed. Failures that another build adds in the meantime are only
+ * seen after the next build has started, which means a dependency may be resolved once more than necessary.
+ * <p>
+ * Keys are never removed from a bloom filter. The filter is built again from the keys in the persistent cache after
+ * expired failures have been removed from it, and when too many of its bits are set.
+ */
+public class TieredInvalidResolvesCache implements InvalidResolvesCache {
+
+    private static final Logger LOGGER = Logging.getLogger(TieredInvalidResolvesCache.class);
+
+    /**
+     * Fraction of set bits above which the bloom filter is built again
+     */
+    private static final double MAX_FILL_RATIO = 0.5;
+
+    @Nonnull
+    private final InvalidResolvesCache persistentCache;
+
+    @Nonnull
+    private final File filterFile;
+
+    @Nonnull
+    private final Supplier<? extends Collection<String>> persistentKeys;
+
+    @Nonnull
+    private final BooleanSupplier compactPersistentCache;
+
+    @Nonnull
+    private final BloomFilter filter;
+
+    /**
+     * Results of lookups in the persistent cache, and failures that have been added during this build
+     */
+    @Nonnull
+    private final Map<Dependency, Optional<FailedDependency>> memoryCache = new ConcurrentHashMap<>();
+
+    private volatile boolean filterChanged;
+
+    /**
+     * @param persistentCache The persistent cache
+     * @param filterFile      File that the bloom filter is stored in
+     * @param persistentKeys  Keys of all failures in the persistent cache, as created by {@link #createKey(Dependency)}.
+     *                        Only used to build the bloom filter when it has not been stored yet, or has to be built
+     *                        again.
+     */
+    public TieredInvalidResolvesCache(@Nonnull InvalidResolvesCache persistentCache, @Nonnull File filterFile,
+            @Nonnull Supplier<? extends Collection<String>> persistentKeys) {
+        this(persistentCache, filterFile, persistentKeys, () -> false);
+    }
+
+    /**
+     * @param persistentCache        The persistent cache
+     * @param filterFile             File that the bloom filter is stored in
+     * @param persistentKeys         Keys of all failures in the persistent cache, as created by
+     *                               {@link #createKey(Dependency)}. Only used to build the bloom filter when it has not
+     *                               been stored yet, or has to be built again.
+     * @param compactPersistentCache Removes expired failures from the persistent cache when that is due, and returns
+     *                               whether any have been removed. Called when the cache is closed.
+     */
+    public TieredInvalidResolvesCache(@Nonnull InvalidResolvesCache persistentCache, @Nonnull File filterFile,
+            @Nonnull Supplier<? extends Collection<String>> persistentKeys,
+            @Nonnull BooleanSupplier compactPersistentCache) {
+        this.persistentCache = persistentCache;
+        this.filterFile = filterFile;
+        this.persistentKeys = persistentKeys;
+        this.compactPersistentCache = compactPersistentCache;
+        BloomFilter storedFilter = readFilter(filterFile);
+        if (storedFilter != null) {
+            filter = storedFilter;
+        } else {
+            filter = buildFilter();
+            filterChanged = true;
+        }
+    }
+
+    /**
+     * @param dependency The dependency
+     * @return The key that is added to the bloom filter for a failure of the dependency
+     */
+    @Nonnull
+    public static String createKey(@Nonnull Dependency dependency) {
+        return UpdateReport.writeDependency(dependency);
+    }
+
+    @Override
+    public void put(Dependency dependency) {
+        memoryCache.put(dependency, Optional.of(DefaultFailedDependency.fromDependency(dependency, null)));
+        filter.add(createKey(dependency));
+        filterChanged = true;
+        persistentCache.put(dependency);
+    }
+
+    @Override
+    public Optional<FailedDependency> get(Dependency dependency) {
+        Optional<FailedDependency> cached = memoryCache.get(dependency);
+        if (cached != null) {
+            return cached;
+        }
+        if (!filter.mightContain(createKey(dependency))) {
+            LOGGER.debug("Dependency {} has never failed according to bloom filter", dependency);
+            return Optional.empty();
+        }
+        Optional<FailedDependency> failedDependency = persistentCache.get(dependency);
+        memoryCache.putIfAbsent(dependency, failedDependency);
+        return failedDependency;
+    }
+
+    /**
+     * Compacts the persistent cache when that is due, stores the bloom filter when it has changed, and closes the
+     * persistent cache
+     */
+    @Override
+    public void close() {
+        try {
+            boolean compacted = compactPersistentCache.getAsBoolean();
+            if (compacted || filterChanged) {
+                writeFilter(compacted);
+            }
+        } finally {
+            persistentCache.close();
+        }
+    }
+
+    @Nonnull
+    private BloomFilter buildFilter() {
+        LOGGER.debug("Building bloom filter for failed dependencies from persistent cache");
+        Collection<String> keys = persistentKeys.get();
+        BloomFilter builtFilter = new BloomFilter(keys.size());
+        keys.forEach(builtFilter::add);
+        return builtFilter;
+    }
+
+    /**
+     * @param compacted Whether failures have been removed from the persistent cache
+     */
+    private void writeFilter(boolean compacted) {
+        BloomFilter writtenFilter = filter;
+        if (compacted) {
+            LOGGER.debug("Persistent cache has been compacted, the bloom filter is built again");
+            writtenFilter = buildFilter();
+        } else {
+            // Keys that other builds have added since this filter was read are kept
+            BloomFilter storedFilter = readFilter(filterFile);
+            if (storedFilter != null && !filter.merge(storedFilter)) {
+                LOGGER.debug("Stored bloom filter has a different size, the bloom filter is built again");
+                writtenFilter = buildFilter();
+            } else if (filter.getFillRatio() > MAX_FILL_RATIO) {
+                LOGGER.debug("Bloom filter is too full, it is built again");
+                writtenFilter = buildFilter();
+            }
+        }
+        Path filterPath = filterFile.toPath();
+        try {
+            Files.createDirectories(filterPath.getParent());
+            Path temporaryFile = Files.createTempFile(filterPath.getParent(), filterFile.getName(), ".tmp");
+            try {
+                try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                    writtenFilter.writeTo(outputStream);
+                }
+                Files.move(temporaryFile, filterPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+            filterChanged = false;
+        } catch (IOException e) {
+            LOGGER.debug("Could not write bloom filter to {}", filterFile, e);
+        }
+    }
+
+    @Nullable
+    private static BloomFilter readFilter(@Nonnull File filterFile) {
+        if (!filterFile.exists()) {
+            return null;
+        }
+        try (InputStream inputStream = Files.newInputStream(filterFile.toPath())) {
+            return BloomFilter.readFrom(inputStream);
+        } catch (IOException e) {
+            LOGGER.debug("Could not read bloom filter from {}", filterFile, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import be.vbgn.gradle.pluginupdates.update.Update;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.CacheNotAvailableException;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.GradleIndexedCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ShardedFileStore;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.CacheRepository;
+
+/**
+ * Stores the results of update checks, so they can be replayed when nothing has changed
+ * <p>
+ * Results are stored in the gradle user home, in a {@link ShardedFileStore} or in the gradle cache. When neither can be
+ * used, they are only kept in memory.
+ * <p>
+ * Results that are older than the check interval they were stored with are removed from the {@link ShardedFileStore}
+ * when the store is closed, at most once per day.
+ */
+class CheckResultsStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(CheckResultsStore.class);
+
+    /**
+     * Minimum time between compactions of the {@link ShardedFileStore}
+     */
+    private static final long COMPACT_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    @Nullable
+    private final ShardedFileStore store;
+
+    @Nullable
+    private final GradleIndexedCache<String, Entry> cache;
+
+    @Nonnull
+    private final Map<String, Entry> memoryCache = new ConcurrentHashMap<>();
+
+    private CheckResultsStore(@Nullable ShardedFileStore store, @Nullable GradleIndexedCache<String, Entry> cache) {
+        this.store = store;
+        this.cache = cache;
+    }
+
+    @Nonnull
+    static CheckResultsStore inMemory() {
+        return new CheckResultsStore(null, null);
+    }
+
+    @Nonnull
+    static CheckResultsStore inFile(@Nonnull File storeDirectory) throws IOException {
+        return new CheckResultsStore(ShardedFileStore.open(storeDirectory, "checkResults"), null);
+    }
+
+    @Nonnull
+    static CheckResultsStore inGradleCache(@Nonnull CacheRepository cacheRepository)
+            throws CacheNotAvailableException {
+        return new CheckResultsStore(null,
+                new GradleIndexedCache<>(cacheRepository, "checkResults", String.class, Entry.class));
+    }
+
+    /**
+     * @param fingerprint   Fingerprint of all inputs of the update check
+     * @param checkInterval Maximum age of the stored results
+     * @return The stored results, or {@link Optional#empty()} when no results are stored or they are older than the interval
+     */
+    @Nonnull
+    Optional<List<Update>> get(@Nonnull String fingerprint, @Nonnull Duration checkInterval) {
+        Entry entry;
+        if (store != null) {
+            entry = store.get(fingerprint)
+                    .map(record -> new Entry(record.getTimestamp(),
+                            new String(record.getValue(), StandardCharsets.UTF_8)))
+                    .orElse(null);
+        } else if (cache != null) {
+            entry = cache.withCache(indexedCache -> cache.get(indexedCache, fingerprint));
+        } else {
+            entry = memoryCache.get(fingerprint);
+        }
+        if (entry == null) {
+            LOGGER.debug("No stored update check results for {}", fingerprint);
+            return Optional.empty();
+        }
+        if (entry.checkedAt <= System.currentTimeMillis() - checkInterval.toMillis()) {
+            LOGGER.debug("Stored update check results for {} are older than {}", fingerprint, checkInterval);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UpdateReport.fromString(entry.report));
+        } catch (IOException e) {
+            LOGGER.debug("Stored update check results for {} can not be read", fingerprint, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param fingerprint   Fingerprint of all inputs of the update check
+     * @param updates       Results of the update check
+     * @param checkInterval Time for which the results are used
+     */
+    void put(@Nonnull String fingerprint, @Nonnull List<Update> updates, @Nonnull Duration checkInterval) {
+        Entry entry = new Entry(System.currentTimeMillis(), UpdateReport.toString(updates));
+        if (store != null) {
+            store.put(fingerprint, entry.report.getBytes(StandardCharsets.UTF_8),
+                    entry.checkedAt + checkInterval.toMillis());
+        } else if (cache != null) {
+            cache.withCache(indexedCache -> {
+                indexedCache.put(fingerprint, entry);
+                return null;
+            });
+        } else {
+            memoryCache.put(fingerprint, entry);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (store != null) {
+            try {
+                long now = System.currentTimeMillis();
+                store.compact(now - COMPACT_INTERVAL, record -> !record.isExpired(now));
+            } finally {
+                store.close();
+            }
+        }
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    /**
+     * Value that is stored in the cache
+     */
+    static final class Entry implements Serializable {
+
+        private final long checkedAt;
+        @Nonnull
+        private final String report;
+
+        private Entry(long checkedAt, @Nonnull String report) {
+            this.checkedAt = checkedAt;
+            this.report = report;
+        }
+    }
+}
@@ -1,43 +1,317 @@
 package be.vbgn.gradle.pluginupdates.update.task;
 
 import be.vbgn.gradle.pluginupdates.update.Update;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import be.vbgn.gradle.pluginupdates.update.formatter.DefaultUpdateFormatter;
+import be.vbgn.gradle.pluginupdates.update.formatter.PluginUpdateFormatter;
+import be.vbgn.gradle.pluginupdates.update.formatter.UpdateFormatter;
+import be.vbgn.gradle.pluginupdates.update.resolver.DefaultDependencyResolver;
+import be.vbgn.gradle.pluginupdates.update.resolver.DependencyResolver;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
 import javax.inject.Inject;
+import org.codehaus.groovy.runtime.MethodClosure;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
-import org.gradle.api.provider.ListProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.TaskState;
 import org.gradle.cache.CacheRepository;
+import org.gradle.util.GradleVersion;
 
-public class CheckUpdateTask extends DefaultTask {
+/**
+ * Checks the plugins on the buildscript classpath of a project for updates
+ * <p>
+ * The results are written to a report file. The task is up-to-date as long as the plugins, the repositories and the
+ * update policy do not change, and the check interval has not passed.
+ * <p>
+ * Everything the check needs from the project is captured in an {@link UpdateCheckRequest} while the project is
+ * configured, so the task does not use the project when it runs.
+ */
+@CacheableTask
+public abstract class CheckUpdateTask extends DefaultTask {
 
-    private final Property<Configuration> configuration = getProject().getObjects()
+    private static final Logger LOGGER = Logging.getLogger(CheckUpdateTask.class);
+
+    /**
+     * Only used to capture the request, it is not available when the task is loaded from the configuration cache
+     */
+    private final transient Property<Configuration> configuration = getProject().getObjects()
             .property(Configuration.class);
 
-    private final ListProperty<Update> updates = getProject().getObjects().listProperty(Update.class);
+    private final Property<UpdateCheckRequest> request = getProject().getObjects()
+            .property(UpdateCheckRequest.class);
 
-    private final UpdateChecker updateChecker;
+    private final Property<UpdateCheckSession> session = getProject().getObjects()
+            .property(UpdateCheckSession.class);
 
-    @Inject
-    public CheckUpdateTask(CacheRepository cacheRepository) {
-        updateChecker = new UpdateChecker(cacheRepository, new ConfigurationCollector(getProject().getGradle()));
+    private final Property<File> reportFile = getProject().getObjects().property(File.class);
+
+    /**
+     * Resolves dependencies with gradle, it is not available when the task is loaded from the configuration cache
+     */
+    private transient DependencyResolver gradleResolver = null;
+
+    private transient UpdateChecker updateChecker = null;
+
+    private transient boolean backgroundStarted = false;
+
+    public CheckUpdateTask() {
+        Project project = getProject();
+        session.set(UpdateCheckSession.forBuild(project));
+        request.set(project.provider(() -> UpdateCheckRequest.capture(project, configuration.get())));
+        reportFile.set(project.provider(
+                () -> new File(project.getBuildDir(), "plugin-updates/" + getName() + ".txt")));
+        // Without check interval, updates are checked on every build, so there is nothing to reuse
+        getOutputs().upToDateWhen(task -> ((CheckUpdateTask) task).hasCheckInterval());
+        getOutputs().cacheIf(task -> ((CheckUpdateTask) task).hasCheckInterval());
     }
 
+    private boolean hasCheckInterval() {
+        return !request.get().getCheckInterval().isZero();
+    }
 
-    @Input
+    @Inject
+    protected abstract CacheRepository getCacheRepository();
+
+    /**
+     * The configuration that is checked for updates
+     */
+    @Internal
     public Property<Configuration> getConfiguration() {
         return configuration;
     }
 
+    /**
+     * Everything that the update check needs to know about the project
+     *
+     * @see #captureRequest()
+     */
+    @Internal
+    public Property<UpdateCheckRequest> getRequest() {
+        return request;
+    }
+
+    /**
+     * Updates for the dependencies in {@link #getConfiguration()}
+     * <p>
+     * The updates are read from {@link #getReportFile()}, so they are also available when this task is up-to-date
+     * or loaded from the build cache. When this task has not produced its report in this build, there are no updates.
+     */
+    @Internal
+    public List<Update> getUpdates() {
+        if (!hasProducedReport(getState())) {
+            return Collections.emptyList();
+        }
+        return readReport(getReportFile());
+    }
+
+    /**
+     * Session that shares update check results with the update check tasks of other projects in the same build
+     */
+    @Internal
+    public Property<UpdateCheckSession> getSession() {
+        return session;
+    }
+
+    /**
+     * Notations of all dependencies in {@link #getConfiguration()} that are checked for updates
+     */
+    @Input
+    public List<String> getClasspathCoordinates() {
+        return request.get().getDependencyNotations();
+    }
+
+    /**
+     * Fingerprint of the repositories that updates are looked up in
+     */
+    @Input
+    public String getRepositoriesFingerprint() {
+        return request.get().getRepositoriesFingerprint();
+    }
+
+    /**
+     * Fingerprint of the update policy
+     */
+    @Input
+    public String getPolicyFingerprint() {
+        return request.get().getPolicyFingerprint();
+    }
+
+    /**
+     * Number of the check interval that the current time falls in
+     * <p>
+     * Buckets are aligned to the clock, not to the time of the last check. The task runs again when a new bucket
+     * starts, which can be sooner than one check interval after the last check. The task action then shows the stored
+     * results of the last check again as long as that check is not older than the check interval, so versions are
+     * still only looked up once per check interval.
+     * <p>
+     * It is calculated every time it is requested, so it is also up to date when the task is loaded from the
+     * configuration cache. Without check interval, the task is never up-to-date and is not cached.
+     *
+     * @see be.vbgn.gradle.pluginupdates.dsl.UpdateCheckerConfiguration#getCheckInterval()
+     */
+    @Input
+    public long getCheckTimeBucket() {
+        Duration checkInterval = request.get().getCheckInterval();
+        if (checkInterval.isZero()) {
+            return 0;
+        }
+        return System.currentTimeMillis() / checkInterval.toMillis();
+    }
+
+    /**
+     * Report file that the updates are written to
+     *
+     * @see UpdateReport
+     */
+    @OutputFile
+    public File getReportFile() {
+        return reportFile.get();
+    }
+
+    /**
+     * Whether the update check is configured to run in the background
+     *
+     * @see be.vbgn.gradle.pluginupdates.dsl.UpdateCheckerConfiguration#isBackground()
+     */
     @Internal
-    public ListProperty<Update> getUpdates() {
-        return updates;
+    public boolean isBackground() {
+        return request.get().isBackground();
+    }
+
+    /**
+     * Captures everything the update check needs from the project
+     * <p>
+     * This must be called while the project is configured, after the buildscript classpath and the update policy are
+     * known. Capturing resolves the buildscript classpath, so it should only be done when the task will run.
+     */
+    public void captureRequest() {
+        UpdateCheckRequest updateCheckRequest = request.get();
+        request.set(updateCheckRequest);
+        gradleResolver = new DefaultDependencyResolver(getProject().getBuildscript(),
+                updateCheckRequest.getUpdateBuilder().isIgnoreUnstable());
+    }
+
+    /**
+     * Reports outdated plugins when the build has finished
+     * <p>
+     * On gradle 6.1 and later, reporting is done by a build service, which also works when the build configuration is
+     * reused from the configuration cache. On older gradle versions, a build listener is used.
+     * <p>
+     * Only a report that this task has produced in this build is reported. The report of an earlier build is left
+     * alone when this task is skipped or fails.
+     */
+    public void reportWhenBuildFinished() {
+        String projectName = getProject().toString();
+        if (GradleVersion.current().compareTo(GradleVersion.version("6.1")) >= 0) {
+            UpdateReportService.register(getProject(), this, projectName);
+        } else {
+            File file = getReportFile();
+            getProject().getGradle().buildFinished(
+                    new MethodClosure(CheckUpdateTask.class, "reportOutdatedOnBuildFinished")
+                            .curry(projectName, file, getState()));
+        }
+    }
+
+    private static void reportOutdatedOnBuildFinished(@Nonnull String projectName, @Nonnull File reportFile,
+            @Nonnull TaskState taskState, Object buildResult) {
+        if (hasProducedReport(taskState)) {
+            reportOutdated(projectName, reportFile);
+        }
+    }
+
+    /**
+     * @param taskState State of an update check task
+     * @return Whether the task has run, was up-to-date or was loaded from the build cache in this build
+     */
+    private static boolean hasProducedReport(@Nonnull TaskState taskState) {
+        // Tasks that are up-to-date or loaded from the build cache are also skipped
+        return taskState.getExecuted() && taskState.getFailure() == null
+                && (!taskState.getSkipped() || taskState.getUpToDate());
+    }
+
+    /**
+     * Prints the outdated plugins in a report
+     *
+     * @param projectName Description of the project that has been checked for updates
+     * @param reportFile  Report file of the update check task
+     */
+    static void reportOutdated(@Nonnull String projectName, @Nonnull File reportFile) {
+        try {
+            UpdateFormatter updateFormatter = new PluginUpdateFormatter(new DefaultUpdateFormatter());
+            readReport(reportFile).forEach(update -> {
+                if (update.isOutdated()) {
+                    LOGGER.warn("Plugin is outdated in {}: {}", projectName, updateFormatter.format(update));
+                }
+            });
+        } catch (Throwable e) {
+            LOGGER.error("Plugin update check failed.", e);
+        }
+    }
+
+    /**
+     * Starts fetching the versions of the plugins in the background
+     * <p>
+     * Only maven metadata is fetched in the background, on threads that are stopped when the build finishes. The
+     * update check itself always runs in the task action, because gradle only allows dependencies to be resolved from
+     * its own threads. It uses the versions that have been fetched in the meantime.
+     */
+    public synchronized void startInBackground() {
+        if (backgroundStarted) {
+            return;
+        }
+        backgroundStarted = true;
+        UpdateCheckRequest updateCheckRequest = request.get();
+        getLogger().debug("Fetching plugin versions in the background for {}", updateCheckRequest.getProjectName());
+        getUpdateChecker().prefetchInBackground(updateCheckRequest, session.get());
     }
 
     @TaskAction
-    public void findUpdates() {
-        getUpdates().set(updateChecker.getUpdates(getProject(), configuration.get()));
+    public synchronized void findUpdates() throws IOException {
+        List<Update> foundUpdates = getUpdateChecker().getUpdates(request.get(), gradleResolver, session.get());
+        writeReport(getReportFile(), foundUpdates);
+    }
+
+    @Nonnull
+    private synchronized UpdateChecker getUpdateChecker() {
+        if (updateChecker == null) {
+            updateChecker = new UpdateChecker(getCacheRepository());
+        }
+        return updateChecker;
+    }
+
+    private static void writeReport(File reportFile, List<Update> updates) throws IOException {
+        Files.createDirectories(reportFile.getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            UpdateReport.write(updates, writer);
+        }
+    }
+
+    private static List<Update> readReport(File reportFile) {
+        if (!reportFile.exists()) {
+            return Collections.emptyList();
+        }
+        try (Reader reader = Files.newBufferedReader(reportFile.toPath(), StandardCharsets.UTF_8)) {
+            return UpdateReport.read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can not read plugin updates report " + reportFile, e);
+        }
     }
 }
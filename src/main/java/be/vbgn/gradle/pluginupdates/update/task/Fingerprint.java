@@ -0,0 +1,102 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+
+/**
+ * Creates fingerprints of the inputs of an update check
+ * <p>
+ * Update checks with the same fingerprints find the same updates for the same dependency.
+ */
+final class Fingerprint {
+
+    private static final Logger LOGGER = Logging.getLogger(Fingerprint.class);
+
+    private Fingerprint() {
+    }
+
+    /**
+     * @param repositories The repositories that are used to look up updates
+     * @return Fingerprint of the locations of all repositories
+     */
+    @Nonnull
+    static String repositories(@Nonnull RepositoryHandler repositories) {
+        StringBuilder description = new StringBuilder();
+        for (ArtifactRepository repository : repositories) {
+            description.append(repository.getName()).append('=');
+            if (repository instanceof MavenArtifactRepository) {
+                MavenArtifactRepository mavenRepository = (MavenArtifactRepository) repository;
+                description.append("maven:").append(mavenRepository.getUrl())
+                        .append(mavenRepository.getArtifactUrls());
+            } else if (repository instanceof IvyArtifactRepository) {
+                description.append("ivy:").append(((IvyArtifactRepository) repository).getUrl());
+            } else if (repository instanceof FlatDirectoryArtifactRepository) {
+                description.append("flatDir:").append(((FlatDirectoryArtifactRepository) repository).getDirs());
+            } else {
+                description.append(repository.getClass().getName());
+            }
+            description.append('\n');
+        }
+        return hash(description.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param dependencies Notations of the first-level dependencies that are checked for updates
+     * @return Fingerprint of all dependencies, independent of their order
+     */
+    @Nonnull
+    static String classpath(@Nonnull List<String> dependencies) {
+        String description = dependencies.stream().sorted().collect(Collectors.joining("\n"));
+        return hash(description.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param updateBuilder The update policy that is used to look up updates
+     * @return Fingerprint of the update policy
+     */
+    @Nonnull
+    static String policy(@Nonnull UpdateBuilder updateBuilder) {
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+                outputStream.writeObject(updateBuilder);
+            }
+            return hash(byteArrayOutputStream.toByteArray());
+        } catch (IOException e) {
+            // Falls back to the description of the policy, so the fingerprint is still the same on every build
+            LOGGER.warn("Can not serialize update policy {}, it is fingerprinted by its description", updateBuilder,
+                    e);
+            String description = updateBuilder.getClass().getName() + ':' + updateBuilder;
+            return hash(description.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Nonnull
+    private static String hash(@Nonnull byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hash = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
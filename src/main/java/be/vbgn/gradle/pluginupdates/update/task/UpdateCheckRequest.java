@@ -0,0 +1,187 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateBuilder;
+import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateCheckerBuilderConfiguration;
+import be.vbgn.gradle.pluginupdates.update.UpdateReport;
+import be.vbgn.gradle.pluginupdates.update.resolver.MavenMetadataDependencyResolver;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+
+/**
+ * Everything an update check needs to know about a project
+ * <p>
+ * A request is captured while the project is configured. It only holds serializable values, so the update check can
+ * run without access to the project, and the request can be stored in the configuration cache.
+ */
+public final class UpdateCheckRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Nonnull
+    private final String projectName;
+    @Nonnull
+    private final ArrayList<String> dependencies;
+    @Nullable
+    private final ArrayList<URI> mavenRepositories;
+    @Nonnull
+    private final String repositoriesFingerprint;
+    @Nonnull
+    private final UpdateBuilder updateBuilder;
+    @Nonnull
+    private final String policyFingerprint;
+    private final int parallelism;
+    @Nonnull
+    private final Duration resolvedVersionsCacheTime;
+    @Nonnull
+    private final Duration invalidResolvesCacheTime;
+    @Nonnull
+    private final Duration checkInterval;
+    private final boolean background;
+    private final boolean refreshDependencies;
+    @Nonnull
+    private final File storeDirectory;
+
+    private UpdateCheckRequest(@Nonnull Project project, @Nonnull Configuration configuration,
+            @Nonnull UpdateCheckerBuilderConfiguration updateCheckerConfiguration) {
+        projectName = project.toString();
+        dependencies = configuration.getResolvedConfiguration()
+                .getFirstLevelModuleDependencies()
+                .stream()
+                .flatMap(DefaultDependency::fromGradle)
+                .map(UpdateReport::writeDependency)
+                .collect(Collectors.toCollection(ArrayList::new));
+        // In offline mode, only gradle knows which versions are available from its cache
+        List<URI> repositoryUrls = project.getGradle().getStartParameter().isOffline() ? null
+                : MavenMetadataDependencyResolver.findMavenRepositories(project.getBuildscript().getRepositories());
+        mavenRepositories = repositoryUrls != null ? new ArrayList<>(repositoryUrls) : null;
+        repositoriesFingerprint = Fingerprint.repositories(project.getBuildscript().getRepositories());
+        updateBuilder = updateCheckerConfiguration.getUpdateBuilder();
+        policyFingerprint = Fingerprint.policy(updateBuilder);
+        parallelism = updateCheckerConfiguration.getParallelism();
+        resolvedVersionsCacheTime = updateCheckerConfiguration.getResolvedVersionsCacheTime();
+        invalidResolvesCacheTime = updateCheckerConfiguration.getInvalidResolvesCacheTime();
+        checkInterval = updateCheckerConfiguration.getCheckInterval();
+        background = updateCheckerConfiguration.isBackground();
+        refreshDependencies = project.getGradle().getStartParameter().isRefreshDependencies();
+        storeDirectory = new File(project.getGradle().getGradleUserHomeDir(),
+                "caches/be.vbgn.gradle.pluginupdates-store");
+    }
+
+    /**
+     * Captures an update check request for a project
+     *
+     * @param project       The project that is checked for updates
+     * @param configuration The configuration of the project that is checked for updates
+     * @return The request
+     */
+    @Nonnull
+    static UpdateCheckRequest capture(@Nonnull Project project, @Nonnull Configuration configuration) {
+        return new UpdateCheckRequest(project, configuration,
+                new ConfigurationCollector(project.getGradle()).forProject(project));
+    }
+
+    /**
+     * @return Description of the project that is checked for updates
+     */
+    @Nonnull
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * @return Notations of the first-level dependencies that are checked for updates
+     * @see UpdateReport#writeDependency(Dependency)
+     */
+    @Nonnull
+    public List<String> getDependencyNotations() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * @return The first-level dependencies that are checked for updates
+     */
+    @Nonnull
+    List<Dependency> getDependencies() {
+        List<Dependency> parsedDependencies = new ArrayList<>(dependencies.size());
+        for (String notation : dependencies) {
+            try {
+                parsedDependencies.add(UpdateReport.readDependency(notation));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return parsedDependencies;
+    }
+
+    /**
+     * @return Base URLs of the buildscript repositories, or {@code null} when they can not all be read directly
+     */
+    @Nullable
+    List<URI> getMavenRepositories() {
+        return mavenRepositories;
+    }
+
+    @Nonnull
+    public String getRepositoriesFingerprint() {
+        return repositoriesFingerprint;
+    }
+
+    @Nonnull
+    UpdateBuilder getUpdateBuilder() {
+        return updateBuilder;
+    }
+
+    @Nonnull
+    public String getPolicyFingerprint() {
+        return policyFingerprint;
+    }
+
+    int getParallelism() {
+        return parallelism;
+    }
+
+    @Nonnull
+    Duration getResolvedVersionsCacheTime() {
+        return resolvedVersionsCacheTime;
+    }
+
+    @Nonnull
+    Duration getInvalidResolvesCacheTime() {
+        return invalidResolvesCacheTime;
+    }
+
+    @Nonnull
+    public Duration getCheckInterval() {
+        return checkInterval;
+    }
+
+    public boolean isBackground() {
+        return background;
+    }
+
+    boolean isRefreshDependencies() {
+        return refreshDependencies;
+    }
+
+    /**
+     * @return Directory in the gradle user home where the plugin stores its caches
+     */
+    @Nonnull
+    File getStoreDirectory() {
+        return storeDirectory;
+    }
+}
@@ -0,0 +1,164 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.update.finder.MemoizingUpdateFinder;
+import be.vbgn.gradle.pluginupdates.update.finder.UpdateFinder;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.codehaus.groovy.runtime.MethodClosure;
+import org.gradle.api.Project;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.util.GradleVersion;
+
+/**
+ * State of update checks that is shared by all update check tasks of a build
+ * <p>
+ * Update checks for the same dependency, with the same repositories and the same update policy are only run once per
+ * build, even when they are requested by the update check tasks of multiple projects.
+ */
+public class UpdateCheckSession implements AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(UpdateCheckSession.class);
+
+    /**
+     * Sessions for gradle versions that do not support build services
+     */
+    private static final Map<Gradle, UpdateCheckSession> LEGACY_SESSIONS = new WeakHashMap<>();
+
+    @Nonnull
+    private final ConcurrentMap<MemoizingUpdateFinder.Key, CompletableFuture<List<Dependency>>> results = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final ConcurrentMap<String, AutoCloseable> resources = new ConcurrentHashMap<>();
+
+    /**
+     * Runs work that is started before the update check tasks run, created when it is first needed
+     */
+    @Nullable
+    private ExecutorService backgroundExecutor = null;
+
+    /**
+     * Wraps an update finder so its results are shared with all other update finders in this session that have the same scope
+     *
+     * @param updateFinder The update finder to wrap
+     * @param scope        Identifies all inputs that the results of the update finder depend on, besides the dependency itself
+     * @return An update finder that only looks up dependencies that have not been looked up before in this session
+     */
+    @Nonnull
+    public UpdateFinder memoize(@Nonnull UpdateFinder updateFinder, @Nonnull String scope) {
+        return new MemoizingUpdateFinder(updateFinder, results, scope);
+    }
+
+    /**
+     * Obtains a resource that is shared by all update checks of this session
+     * <p>
+     * The resource is created when it is requested for the first time, and is closed when the session is closed.
+     *
+     * @param key     Identifies the resource, resources with the same key must have the same type
+     * @param factory Creates the resource when it does not exist yet
+     * @param <T>     Type of the resource
+     * @return The resource
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <T extends AutoCloseable> T getResource(@Nonnull String key, @Nonnull Supplier<T> factory) {
+        return (T) resources.computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * Obtains the executor for work that runs in the background while the build is running
+     * <p>
+     * Work on this executor must not use any gradle services, gradle does not allow that from threads it does not
+     * manage. Its threads are stopped when the session is closed, so they never outlive the build.
+     *
+     * @return The executor for background work
+     */
+    @Nonnull
+    public synchronized Executor getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "plugin-updates-background");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Closing update check session with {} results and {} resources", results.size(),
+                resources.size());
+        synchronized (this) {
+            if (backgroundExecutor != null) {
+                backgroundExecutor.shutdownNow();
+                backgroundExecutor = null;
+            }
+        }
+        results.clear();
+        resources.forEach((key, resource) -> {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                LOGGER.warn("Could not close {}", key);
+                LOGGER.debug("Full stacktrace for above warning", e);
+            }
+        });
+        resources.clear();
+    }
+
+    /**
+     * Obtains the session for the build that a project belongs to
+     * <p>
+     * On gradle 6.1 and later, the session is managed by a build service. On older gradle versions, the session is
+     * closed when the build finishes.
+     *
+     * @param project Any project of the build
+     * @return Provider for the session of the build
+     */
+    @Nonnull
+    static Provider<UpdateCheckSession> forBuild(@Nonnull Project project) {
+        if (GradleVersion.current().compareTo(GradleVersion.version("6.1")) >= 0) {
+            return UpdateCheckSessionService.register(project.getGradle());
+        }
+        UpdateCheckSession session = legacySession(project.getGradle());
+        return project.provider(() -> session);
+    }
+
+    @Nonnull
+    private static UpdateCheckSession legacySession(@Nonnull Gradle gradle) {
+        synchronized (LEGACY_SESSIONS) {
+            UpdateCheckSession session = LEGACY_SESSIONS.get(gradle);
+            if (session == null) {
+                UpdateCheckSession newSession = new UpdateCheckSession();
+                LEGACY_SESSIONS.put(gradle, newSession);
+                gradle.buildFinished(new MethodClosure(newSession, "closeLegacySession").curry(gradle));
+                session = newSession;
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Closes a session that is not managed by a build service when the build has finished
+     */
+    private void closeLegacySession(@Nonnull Gradle gradle, Object buildResult) {
+        synchronized (LEGACY_SESSIONS) {
+            LEGACY_SESSIONS.remove(gradle);
+        }
+        close();
+    }
+}
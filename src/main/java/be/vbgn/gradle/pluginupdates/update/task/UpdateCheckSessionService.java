@@ -0,0 +1,40 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import javax.annotation.Nonnull;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build service that holds the {@link UpdateCheckSession} of a build
+ * <p>
+ * This class can only be loaded on gradle 6.1 and later
+ */
+public abstract class UpdateCheckSessionService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    @Nonnull
+    private final UpdateCheckSession session = new UpdateCheckSession();
+
+    @Nonnull
+    public UpdateCheckSession getSession() {
+        return session;
+    }
+
+    @Override
+    public void close() {
+        session.close();
+    }
+
+    @Nonnull
+    static Provider<UpdateCheckSession> register(@Nonnull Gradle gradle) {
+        // The plugin can be loaded multiple times in different classloaders (init script, settings and buildscript)
+        // Every classloader has its own service, because classes can not be shared between them
+        String serviceName = "pluginUpdatesSession_" + Integer
+                .toHexString(System.identityHashCode(UpdateCheckSessionService.class.getClassLoader()));
+        return gradle.getSharedServices()
+                .registerIfAbsent(serviceName, UpdateCheckSessionService.class, spec -> {
+                })
+                .map(UpdateCheckSessionService::getSession);
+    }
+}
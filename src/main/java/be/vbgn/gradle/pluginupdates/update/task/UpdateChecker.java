@@ -1,25 +1,41 @@
 package be.vbgn.gradle.pluginupdates.update.task;
 
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
 import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateBuilder;
-import be.vbgn.gradle.pluginupdates.dsl.internal.UpdateCheckerBuilderConfiguration;
 import be.vbgn.gradle.pluginupdates.update.Update;
 import be.vbgn.gradle.pluginupdates.update.checker.DefaultUpdateChecker;
+import be.vbgn.gradle.pluginupdates.update.finder.DaemonCachingUpdateFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.DefaultUpdateFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.DefaultVersionProvider;
 import be.vbgn.gradle.pluginupdates.update.finder.FilterOlderVersionsUpdateFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.UpdateFinder;
 import be.vbgn.gradle.pluginupdates.update.finder.VersionProvider;
-import be.vbgn.gradle.pluginupdates.update.resolver.DefaultDependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.DependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.FailureCachingDependencyResolver;
+import be.vbgn.gradle.pluginupdates.update.resolver.MavenMetadataDependencyResolver;
+import be.vbgn.gradle.pluginupdates.update.resolver.SuccessCachingDependencyResolver;
+import be.vbgn.gradle.pluginupdates.update.resolver.UnavailableDependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.CacheNotAvailableException;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.GradleCacheCompat;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesFileCache;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesGradleCache;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesMemoryCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.MavenMetadataVersionLister;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsFileCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsGradleCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsMemoryCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.TieredInvalidResolvesCache;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
-import org.gradle.api.Project;
-import org.gradle.api.artifacts.Configuration;
+import javax.annotation.Nullable;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheRepository;
@@ -28,56 +44,227 @@ class UpdateChecker {
 
     private static final Logger LOGGER = Logging.getLogger(UpdateChecker.class);
     private static final String MISSING_CACHE_COMPONENT = "Some required gradle components are missing. Invalid resolves cache is disabled, which will slow down plugin update checks.";
+    private static final String MISSING_RESOLVED_VERSIONS_CACHE_COMPONENT = "Some required gradle components are missing. Resolved versions cache is disabled, which will slow down plugin update checks.";
+    private static final String MISSING_CHECK_RESULTS_COMPONENT = "Some required gradle components are missing. Check interval is not remembered across builds.";
+    private static final String STORE_UNAVAILABLE = "Plugin updates store in {} can not be used, falling back to the gradle cache.";
+    private static final String GRADLE_RESOLVER_UNAVAILABLE = "Dependencies can only be resolved from maven metadata when the build configuration is reused from the configuration cache.";
+    private static final String GRADLE_RESOLVER_UNAVAILABLE_WARNING = "Some plugins of {} could not be checked for updates, because only maven metadata can be used when the build configuration is reused from the configuration cache. Plugins from repositories that require credentials, have content filters or are not maven repositories can only be checked without configuration cache.";
     private CacheRepository cacheRepository;
-    private ConfigurationCollector configurationCollector;
-    private InvalidResolvesCache invalidResolvesCache = null;
 
 
-    public UpdateChecker(CacheRepository cacheRepository, ConfigurationCollector configurationCollector) {
+    public UpdateChecker(CacheRepository cacheRepository) {
         this.cacheRepository = cacheRepository;
-        this.configurationCollector = configurationCollector;
     }
 
-    public List<Update> getUpdates(Project project, Configuration configuration) {
-        UpdateCheckerBuilderConfiguration updateCheckerBuilderConfiguration = configurationCollector
-                .forProject(project);
-        UpdateBuilder updateBuilder = updateCheckerBuilderConfiguration.getUpdateBuilder();
+    /**
+     * Checks the dependencies of a request for updates
+     *
+     * @param request          The captured update check request
+     * @param gradleResolver   Resolver that resolves dependencies with gradle, for dependencies that can not be resolved
+     *                         from maven metadata. {@code null} when gradle can not be used to resolve dependencies.
+     * @param session          The session that shares results with the other update checks of the build
+     * @return Updates for all dependencies of the request
+     */
+    public List<Update> getUpdates(UpdateCheckRequest request, @Nullable DependencyResolver gradleResolver,
+            UpdateCheckSession session) {
+        UpdateBuilder updateBuilder = request.getUpdateBuilder();
+        boolean refreshDependencies = request.isRefreshDependencies();
+        boolean ignoreUnstable = updateBuilder.isIgnoreUnstable();
+        String repositories = request.getRepositoriesFingerprint();
+        String scope = repositories + "/" + request.getPolicyFingerprint();
+
+        Duration checkInterval = request.getCheckInterval();
+        String checkFingerprint = null;
+        if (!checkInterval.isZero()) {
+            checkFingerprint = Fingerprint.classpath(request.getDependencyNotations()) + "/" + scope;
+            if (!refreshDependencies) {
+                Optional<List<Update>> storedUpdates = getCheckResultsStore(request, session)
+                        .get(checkFingerprint, checkInterval);
+                if (storedUpdates.isPresent()) {
+                    LOGGER.info("Plugins of {} have been checked for updates less than {} ago. Showing previous results.",
+                            request.getProjectName(), checkInterval);
+                    return storedUpdates.get();
+                }
+            }
+        }
+
         VersionProvider versionProvider = updateBuilder.buildVersionProvider(new DefaultVersionProvider());
-        DependencyResolver defaultDependencyResolver = new DefaultDependencyResolver(project.getBuildscript());
-        DependencyResolver cachedDependencyResolver = new FailureCachingDependencyResolver(defaultDependencyResolver,
-                getInvalidResolvesCache());
+        DependencyResolver cachedDependencyResolver;
+        if (gradleResolver != null) {
+            cachedDependencyResolver = new FailureCachingDependencyResolver(
+                    new MavenMetadataDependencyResolver(getVersionLister(request, session), gradleResolver,
+                            ignoreUnstable, request.getParallelism()),
+                    getInvalidResolvesCache(request, session, request.getInvalidResolvesCacheTime()));
+        } else {
+            // Failures are caused by gradle not being available, so they are only remembered during this check
+            LOGGER.info("Gradle can not resolve dependencies for {}, only maven metadata is used.",
+                    request.getProjectName());
+            cachedDependencyResolver = new FailureCachingDependencyResolver(
+                    new MavenMetadataDependencyResolver(getVersionLister(request, session),
+                            new UnavailableDependencyResolver(GRADLE_RESOLVER_UNAVAILABLE), ignoreUnstable,
+                            request.getParallelism()),
+                    new InvalidResolvesMemoryCache());
+            checkFingerprint = null;
+        }
+        Duration cacheTime = request.getResolvedVersionsCacheTime();
+        if (!cacheTime.isZero()) {
+            // Resolved versions differ when unstable versions are ignored, so they are remembered separately
+            cachedDependencyResolver = new SuccessCachingDependencyResolver(cachedDependencyResolver,
+                    getResolvedVersionsCache(request, session, cacheTime),
+                    ignoreUnstable ? repositories + "/stable" : repositories, refreshDependencies);
+        }
 
         UpdateFinder updateFinder = new FilterOlderVersionsUpdateFinder(updateBuilder
                 .buildUpdateFinder(new DefaultUpdateFinder(cachedDependencyResolver, versionProvider)));
+        if (!cacheTime.isZero()) {
+            // Results are remembered in the daemon, so the next build does not need to look up anything
+            updateFinder = new DaemonCachingUpdateFinder(updateFinder, scope, cacheTime.toMillis(),
+                    refreshDependencies);
+        }
+        updateFinder = session.memoize(updateFinder, scope);
         DefaultUpdateChecker updateChecker = new DefaultUpdateChecker(updateFinder);
 
-        return updateChecker.getUpdates(configuration).collect(Collectors.toList());
+        List<Update> updates = updateChecker.getUpdates(request.getDependencies()).collect(Collectors.toList());
+
+        boolean failed = updates.stream()
+                .flatMap(update -> update.getUpdates().stream())
+                .anyMatch(FailedDependency.class::isInstance);
+        if (failed && gradleResolver == null) {
+            LOGGER.warn(GRADLE_RESOLVER_UNAVAILABLE_WARNING, request.getProjectName());
+        }
+        if (checkFingerprint != null) {
+            // Failures are often temporary, they should not be shown again for the whole check interval
+            if (failed) {
+                LOGGER.info("Some plugins of {} could not be checked for updates. Results are not remembered.",
+                        request.getProjectName());
+            } else {
+                getCheckResultsStore(request, session).put(checkFingerprint, updates, checkInterval);
+            }
+        }
+        return updates;
+
+    }
+
+    /**
+     * Starts fetching the maven metadata of the dependencies of a request in the background
+     * <p>
+     * Only maven metadata is fetched, which does not need any gradle services. The update check itself still runs
+     * when {@link #getUpdates(UpdateCheckRequest, DependencyResolver, UpdateCheckSession)} is called, and uses the
+     * versions that have been fetched in the meantime.
+     *
+     * @param request The captured update check request
+     * @param session The session that shares results with the other update checks of the build
+     */
+    public void prefetchInBackground(UpdateCheckRequest request, UpdateCheckSession session) {
+        MavenMetadataVersionLister versionLister = getVersionLister(request, session);
+        if (versionLister == null) {
+            LOGGER.debug("Repositories of {} can not be read directly, nothing to fetch in the background.",
+                    request.getProjectName());
+            return;
+        }
+        versionLister.prefetch(request.getDependencies(), request.getParallelism(), session.getBackgroundExecutor())
+                .whenComplete((result, exception) -> {
+                    if (exception != null) {
+                        LOGGER.debug("Fetching versions in the background failed for {}", request.getProjectName(),
+                                exception);
+                    }
+                });
+    }
 
+    /**
+     * Versions that are listed from maven metadata are shared by all update checks of the session that use the same
+     * repositories
+     *
+     * @return The version lister, or {@code null} when the repositories can not be read directly
+     */
+    @Nullable
+    private static MavenMetadataVersionLister getVersionLister(UpdateCheckRequest request,
+            UpdateCheckSession session) {
+        List<URI> repositories = request.getMavenRepositories();
+        if (repositories == null) {
+            return null;
+        }
+        return session.getResource("versionLister/" + request.getRepositoriesFingerprint(),
+                () -> new MavenMetadataVersionLister(repositories));
     }
 
-    private static boolean classExists(String className) {
+    /**
+     * The caches are kept open for the whole build, and are closed together with the session
+     * <p>
+     * Caches are stored in the plugin's own store in the gradle user home. When that can not be opened, the gradle
+     * cache is used, and when that is not available either, caches are only kept in memory.
+     */
+    private InvalidResolvesCache getInvalidResolvesCache(UpdateCheckRequest request, UpdateCheckSession session,
+            Duration cacheTime) {
+        if (cacheTime.isZero()) {
+            return session.getResource("invalidResolvesCache/0", InvalidResolvesMemoryCache::new);
+        }
+        return session.getResource("invalidResolvesCache/" + cacheTime.toMillis(),
+                () -> createInvalidResolvesCache(request.getStoreDirectory(), cacheTime));
+    }
+
+    private InvalidResolvesCache createInvalidResolvesCache(File storeDirectory, Duration cacheTime) {
         try {
-            Class.forName(className);
-            return true;
-        } catch (ClassNotFoundException e) {
-            return false;
+            InvalidResolvesFileCache fileCache = new InvalidResolvesFileCache(storeDirectory, cacheTime.toMillis());
+            // Compacting runs while plugins are checked, so the end of the build does not wait for all of it
+            fileCache.compactInBackground();
+            return new TieredInvalidResolvesCache(fileCache, new File(storeDirectory, "invalidResolves.bloom"),
+                    fileCache::keys, fileCache::compactIfDue);
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.info(STORE_UNAVAILABLE, storeDirectory, e);
         }
+        try {
+            if (GradleCacheCompat.isAvailable()) {
+                return new InvalidResolvesGradleCache(cacheRepository, cacheTime.toMillis());
+            }
+        } catch (NoClassDefFoundError | CacheNotAvailableException e) {
+            LOGGER.warn(MISSING_CACHE_COMPONENT);
+            LOGGER.debug("Full exception for above warning", e);
+        }
+        return new InvalidResolvesMemoryCache(cacheTime.toMillis());
     }
 
-    private InvalidResolvesCache getInvalidResolvesCache() {
-        if (invalidResolvesCache == null) {
-            try {
-                if (classExists("org.gradle.cache.LockOptions")) {
-                    invalidResolvesCache = new InvalidResolvesGradleCache(cacheRepository);
-                } else {
-                    invalidResolvesCache = new InvalidResolvesMemoryCache();
-                }
-            } catch (NoClassDefFoundError | CacheNotAvailableException e) {
-                LOGGER.warn(MISSING_CACHE_COMPONENT);
-                LOGGER.debug("Full exception for above warning", e);
-                invalidResolvesCache = new InvalidResolvesMemoryCache();
+    private ResolvedVersionsCache getResolvedVersionsCache(UpdateCheckRequest request, UpdateCheckSession session,
+            Duration cacheTime) {
+        return session.getResource("resolvedVersionsCache/" + cacheTime.toMillis(),
+                () -> createResolvedVersionsCache(request.getStoreDirectory(), cacheTime));
+    }
+
+    private ResolvedVersionsCache createResolvedVersionsCache(File storeDirectory, Duration cacheTime) {
+        try {
+            return new ResolvedVersionsFileCache(storeDirectory, cacheTime.toMillis());
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.info(STORE_UNAVAILABLE, storeDirectory, e);
+        }
+        try {
+            if (GradleCacheCompat.isAvailable()) {
+                return new ResolvedVersionsGradleCache(cacheRepository, cacheTime.toMillis());
+            }
+        } catch (NoClassDefFoundError | CacheNotAvailableException e) {
+            LOGGER.warn(MISSING_RESOLVED_VERSIONS_CACHE_COMPONENT);
+            LOGGER.debug("Full exception for above warning", e);
+        }
+        return new ResolvedVersionsMemoryCache();
+    }
+
+    private CheckResultsStore getCheckResultsStore(UpdateCheckRequest request, UpdateCheckSession session) {
+        return session.getResource("checkResultsStore", () -> createCheckResultsStore(request.getStoreDirectory()));
+    }
+
+    private CheckResultsStore createCheckResultsStore(File storeDirectory) {
+        try {
+            return CheckResultsStore.inFile(storeDirectory);
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.info(STORE_UNAVAILABLE, storeDirectory, e);
+        }
+        try {
+            if (GradleCacheCompat.isAvailable()) {
+                return CheckResultsStore.inGradleCache(cacheRepository);
             }
+        } catch (NoClassDefFoundError | CacheNotAvailableException e) {
+            LOGGER.warn(MISSING_CHECK_RESULTS_COMPONENT);
+            LOGGER.debug("Full exception for above warning", e);
         }
-        return invalidResolvesCache;
+        return CheckResultsStore.inMemory();
     }
 }
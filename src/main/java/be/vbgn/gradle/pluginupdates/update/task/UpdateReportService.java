@@ -0,0 +1,91 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import java.io.File;
+import javax.annotation.Nonnull;
+import javax.inject.Inject;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.build.event.BuildEventsListenerRegistry;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+/**
+ * Build service that reports the outdated plugins of an update check task when the build has finished
+ * <p>
+ * The service is closed at the end of the build, also when the build configuration is reused from the configuration
+ * cache. It is registered as a task completion listener, so it is created for every build, even when the update check
+ * task is up-to-date. The report is only shown when the task has run, was up-to-date or was loaded from the build cache
+ * in this build, so the report of an earlier build is not shown again when the task is skipped or fails.
+ * <p>
+ * This class can only be loaded on gradle 6.1 and later
+ */
+public abstract class UpdateReportService implements BuildService<UpdateReportService.Parameters>,
+        OperationCompletionListener, AutoCloseable {
+
+    public interface Parameters extends BuildServiceParameters {
+
+        /**
+         * Description of the project that is checked for updates
+         */
+        Property<String> getProjectName();
+
+        /**
+         * Report file of the update check task
+         */
+        Property<File> getReportFile();
+
+        /**
+         * Path of the update check task
+         */
+        Property<String> getTaskPath();
+    }
+
+    private volatile boolean reportProduced = false;
+
+    @Override
+    public void onFinish(FinishEvent finishEvent) {
+        // Up-to-date tasks and tasks that are loaded from the build cache also finish successfully
+        if (finishEvent instanceof TaskFinishEvent && finishEvent.getResult() instanceof TaskSuccessResult
+                && ((TaskFinishEvent) finishEvent).getDescriptor().getTaskPath()
+                .equals(getParameters().getTaskPath().get())) {
+            reportProduced = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (reportProduced) {
+            CheckUpdateTask.reportOutdated(getParameters().getProjectName().get(),
+                    getParameters().getReportFile().get());
+        }
+    }
+
+    /**
+     * Gives access to the build events listener registry, which gradle only provides by injection
+     */
+    public abstract static class ListenerRegistration {
+
+        @Inject
+        public abstract BuildEventsListenerRegistry getBuildEventsListenerRegistry();
+    }
+
+    static void register(@Nonnull Project project, @Nonnull CheckUpdateTask task, @Nonnull String projectName) {
+        // Every task has its own service, the classloader is part of the name because every classloader that
+        // the plugin is loaded in registers its own tasks.
+        String serviceName = "pluginUpdatesReport_" + Integer
+                .toHexString(System.identityHashCode(UpdateReportService.class.getClassLoader())) + task.getPath();
+        Provider<UpdateReportService> service = project.getGradle().getSharedServices()
+                .registerIfAbsent(serviceName, UpdateReportService.class, spec -> {
+                    spec.getParameters().getProjectName().set(projectName);
+                    spec.getParameters().getReportFile().set(task.getReportFile());
+                    spec.getParameters().getTaskPath().set(task.getPath());
+                });
+        project.getObjects().newInstance(ListenerRegistration.class).getBuildEventsListenerRegistry()
+                .onTaskCompletion(service);
+    }
+}
@@ -5,12 +5,35 @@ import javax.annotation.Nonnull;
 
 /**
  * Single, numeric or wildcard component of a version number
+ * <p>
+ * Instances are immutable. Instances for small numbers are shared, so parsing version numbers does not create a new
+ * instance for every component.
  */
 public final class NumberWildcard implements Comparable<NumberWildcard>, Serializable {
 
+    /**
+     * Computed from the class before its fields became final, so versions that are serialized by other versions of
+     * the plugin can still be read
+     */
+    private static final long serialVersionUID = 4902242246404708372L;
+
     private static final NumberWildcard WILDCARD = new NumberWildcard(-1, true);
     private static final NumberWildcard EMPTY = new NumberWildcard(-1, false);
 
+    /**
+     * Numbers below this value are shared instances
+     */
+    private static final int CACHED_NUMBERS = 256;
+    private static final NumberWildcard[] NUMBERS = new NumberWildcard[CACHED_NUMBERS];
+    private static final NumberWildcard[] NUMBER_WILDCARDS = new NumberWildcard[CACHED_NUMBERS];
+
+    static {
+        for (int i = 0; i < CACHED_NUMBERS; i++) {
+            NUMBERS[i] = new NumberWildcard(i, false);
+            NUMBER_WILDCARDS[i] = new NumberWildcard(i, true);
+        }
+    }
+
     /**
      * Exception thrown when an attempt is made to retrieve the numeric component of a {@link NumberWildcard} that does not have a numeric component.
      */
@@ -28,12 +51,12 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
      * -1 indicates the absence of a numeric part.
      * Valid values are &gt;=0
      */
-    private int number = -1;
+    private final int number;
 
     /**
      * Wildcard part of the component
      */
-    private boolean hasWildcard;
+    private final boolean hasWildcard;
 
     /**
      * Creates a numeric variant without a wildcard
@@ -45,7 +68,7 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
         if (number < 0) {
             throw new IllegalArgumentException("A version number can not be negative.");
         }
-        return new NumberWildcard(number, false);
+        return of(number, false);
     }
 
     /**
@@ -87,6 +110,40 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
         this.hasWildcard = hasWildcard;
     }
 
+    /**
+     * Returns a shared instance when there is one, else creates a new instance
+     *
+     * @param number      The number to use. -1 signifies a lack of number component.
+     * @param hasWildcard Is a wildcard?
+     */
+    @Nonnull
+    private static NumberWildcard of(int number, boolean hasWildcard) {
+        if (number < 0) {
+            return hasWildcard ? WILDCARD : EMPTY;
+        }
+        if (number < CACHED_NUMBERS) {
+            return hasWildcard ? NUMBER_WILDCARDS[number] : NUMBERS[number];
+        }
+        return new NumberWildcard(number, hasWildcard);
+    }
+
+    /**
+     * Replaces deserialized instances with shared instances
+     */
+    private Object readResolve() {
+        return of(number, hasWildcard);
+    }
+
+    /**
+     * Packs this component in a single number that sorts the same way as {@link #compareTo(NumberWildcard)}
+     * <p>
+     * The wildcard is stored above the numeric component, and the numeric component is shifted by one, so a missing
+     * numeric component sorts below all numbers.
+     */
+    long sortKey() {
+        return (hasWildcard ? 1L << 32 : 0L) | (number + 1L);
+    }
+
     public boolean hasNumberComponent() {
         return number >= 0;
     }
@@ -114,7 +171,7 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
         if (number < 0) {
             throw new IllegalArgumentException("A version number can not be negative.");
         }
-        return new NumberWildcard(number, hasWildcard);
+        return of(number, hasWildcard);
     }
 
     /**
@@ -122,7 +179,7 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
      */
     @Nonnull
     public NumberWildcard withoutNumberComponent() {
-        return new NumberWildcard(-1, hasWildcard);
+        return of(-1, hasWildcard);
     }
 
     public boolean hasWildcard() {
@@ -134,7 +191,7 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
      */
     @Nonnull
     public NumberWildcard withWildcard() {
-        return new NumberWildcard(number, true);
+        return of(number, true);
     }
 
     /**
@@ -142,7 +199,7 @@ public final class NumberWildcard implements Comparable<NumberWildcard>, Seriali
      */
     @Nonnull
     public NumberWildcard withoutWildcard() {
-        return new NumberWildcard(number, false);
+        return of(number, false);
     }
 
     /**
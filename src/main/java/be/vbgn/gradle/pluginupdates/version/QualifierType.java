@@ -0,0 +1,90 @@
+package be.vbgn.gradle.pluginupdates.version;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+
+/**
+ * Release stage of a version, as indicated by its qualifier
+ * <p>
+ * Types are ordered from most stable to least stable.
+ * <p>
+ * Qualifiers are matched case insensitively against well-known pre-release markers, like <code>SNAPSHOT</code>,
+ * <code>alpha1</code>, <code>b2</code>, <code>M3</code> or <code>RC1</code>. Markers are only recognized as a whole
+ * word, separated from the rest of the qualifier by a <code>.</code>, <code>-</code>, <code>_</code>, <code>+</code>
+ * or a number.
+ * All other qualifiers, like <code>jre</code> or <code>Final</code>, are stable.
+ */
+public enum QualifierType {
+    STABLE(null),
+    RC("rc|cr|pre|preview"),
+    MILESTONE("m|milestone"),
+    BETA("b|beta"),
+    ALPHA("a|alpha|ea|dev"),
+    SNAPSHOT("snapshot|nightly");
+
+    /**
+     * Maximum number of classified qualifiers that are kept in {@link #CLASSIFIED}
+     */
+    private static final int MAX_CLASSIFIED = 1024;
+
+    /**
+     * Classified qualifiers, by their qualifier string
+     */
+    private static final ConcurrentMap<String, QualifierType> CLASSIFIED = new ConcurrentHashMap<>();
+
+    /**
+     * Least stable types first, so a qualifier like <code>rc1-SNAPSHOT</code> is classified as a snapshot
+     */
+    private static final QualifierType[] CLASSIFICATION_ORDER = {SNAPSHOT, ALPHA, BETA, MILESTONE, RC};
+
+    private final Pattern pattern;
+
+    QualifierType(String markers) {
+        pattern = markers == null ? null
+                : Pattern.compile("(?:^|[._+\\-\\d])(?:" + markers + ")(?:$|[._+\\-\\d])", Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * @return Whether this type is a final release
+     */
+    public boolean isStable() {
+        return this == STABLE;
+    }
+
+    /**
+     * Classifies a version qualifier
+     * <p>
+     * Qualifiers that have been classified before are returned from a cache.
+     *
+     * @param qualifier The qualifier of a version
+     * @return The release stage indicated by the qualifier
+     */
+    @Nonnull
+    public static QualifierType classify(@Nonnull String qualifier) {
+        if (qualifier.isEmpty()) {
+            return STABLE;
+        }
+        QualifierType type = CLASSIFIED.get(qualifier);
+        if (type == null) {
+            type = classifyUncached(qualifier);
+            if (CLASSIFIED.size() >= MAX_CLASSIFIED) {
+                // Only a handful of different qualifiers is used in practice
+                CLASSIFIED.clear();
+            }
+            CLASSIFIED.put(qualifier, type);
+        }
+        return type;
+    }
+
+    @Nonnull
+    private static QualifierType classifyUncached(@Nonnull String qualifier) {
+        for (QualifierType type : CLASSIFICATION_ORDER) {
+            if (type.pattern.matcher(qualifier).find()) {
+                return type;
+            }
+        }
+        return STABLE;
+    }
+}
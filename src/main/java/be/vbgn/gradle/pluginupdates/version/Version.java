@@ -1,6 +1,8 @@
 package be.vbgn.gradle.pluginupdates.version;
 
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nonnull;
 
 /**
@@ -18,19 +20,67 @@ import javax.annotation.Nonnull;
  * A version number can also contain a wildcard, <code>+</code>, in any numeric position. In this case, no further parts may follow the wildcard.
  * <p>
  * A version number does not have to be complete. <code>4.2</code> is considered a valid version, with the MICRO and QUALIFIER parts being empty. <code>4.2.0</code> will be considered larger than <code>4.2</code>
+ * <p>
+ * Versions are immutable. Parsed versions are kept in a bounded pool, so parsing the same version number again returns
+ * the same instance. The hash code and the string form are only computed once.
+ * The numeric components and the case folded qualifier are computed when the version is created, so comparing versions
+ * does not allocate.
  */
 public class Version implements Comparable<Version>, Serializable {
 
+    /**
+     * Computed from the class before its fields became final, so versions that are serialized by other versions of
+     * the plugin can still be read
+     */
+    private static final long serialVersionUID = -5395814887046692313L;
+
+    /**
+     * Maximum number of parsed versions that are kept in {@link #PARSED}
+     */
+    private static final int MAX_PARSED = 4096;
+
+    /**
+     * Parsed versions by the string they were parsed from
+     */
+    private static final ConcurrentMap<String, Version> PARSED = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final NumberWildcard major;
     @Nonnull
-    private NumberWildcard major;
+    private final NumberWildcard minor;
     @Nonnull
-    private NumberWildcard minor;
+    private final NumberWildcard micro;
     @Nonnull
-    private NumberWildcard micro;
+    private final NumberWildcard patch;
     @Nonnull
-    private NumberWildcard patch;
+    private final String qualifier;
+
+    /**
+     * Sort keys of the numeric components
+     *
+     * @see NumberWildcard#sortKey()
+     */
+    private final transient long majorKey;
+    private final transient long minorKey;
+    private final transient long microKey;
+    private final transient long patchKey;
+
+    /**
+     * Qualifier folded the same way {@link String#compareToIgnoreCase(String)} and
+     * {@link String#equalsIgnoreCase(String)} fold characters
+     */
     @Nonnull
-    private String qualifier;
+    private final transient String foldedQualifier;
+
+    /**
+     * Cached hash code, 0 when it has not been computed yet
+     */
+    private transient int hash;
+
+    /**
+     * Cached string form, null when it has not been computed yet
+     */
+    private transient String string;
 
     /**
      * Creates an empty version, with all components empty.
@@ -56,6 +106,11 @@ public class Version implements Comparable<Version>, Serializable {
         this.micro = micro;
         this.patch = patch;
         this.qualifier = qualifier;
+        majorKey = major.sortKey();
+        minorKey = minor.sortKey();
+        microKey = micro.sortKey();
+        patchKey = patch.sortKey();
+        foldedQualifier = foldCase(qualifier);
         validateEmptyAfterWildcard(major, minor, micro, patch);
         if ((major.hasWildcard() || minor.hasWildcard() || micro.hasWildcard() || patch.hasWildcard()) && !qualifier
                 .isEmpty()) {
@@ -63,6 +118,29 @@ public class Version implements Comparable<Version>, Serializable {
         }
     }
 
+    @Nonnull
+    private static String foldCase(@Nonnull String qualifier) {
+        char[] chars = null;
+        for (int i = 0; i < qualifier.length(); i++) {
+            char c = qualifier.charAt(i);
+            char folded = Character.toLowerCase(Character.toUpperCase(c));
+            if (folded != c) {
+                if (chars == null) {
+                    chars = qualifier.toCharArray();
+                }
+                chars[i] = folded;
+            }
+        }
+        return chars == null ? qualifier : new String(chars);
+    }
+
+    /**
+     * Replaces deserialized versions with a new instance, so the sort keys are computed
+     */
+    private Object readResolve() {
+        return new Version(major, minor, micro, patch, qualifier);
+    }
+
     private static void validateEmptyAfterWildcard(NumberWildcard... numbers) {
         boolean foundWildcard = false;
         boolean foundEmpty = false;
@@ -108,6 +186,42 @@ public class Version implements Comparable<Version>, Serializable {
         return qualifier;
     }
 
+    /**
+     * @return Release stage indicated by the qualifier
+     * @see QualifierType#classify(String)
+     */
+    @Nonnull
+    public QualifierType getQualifierType() {
+        return QualifierType.classify(qualifier);
+    }
+
+    /**
+     * @return Whether this version is a final release, without a pre-release qualifier
+     */
+    public boolean isStable() {
+        return getQualifierType().isStable();
+    }
+
+    /**
+     * @param component Index of the numeric component, 0 for MAJOR up to 3 for PATCH
+     * @return Sort key of the numeric component
+     * @see NumberWildcard#sortKey()
+     */
+    long sortKey(int component) {
+        switch (component) {
+            case 0:
+                return majorKey;
+            case 1:
+                return minorKey;
+            case 2:
+                return microKey;
+            case 3:
+                return patchKey;
+            default:
+                throw new IndexOutOfBoundsException("Version component " + component + " does not exist.");
+        }
+    }
+
     @Nonnull
     public Version withMajor(@Nonnull NumberWildcard major) {
         if (major.hasWildcard()) {
@@ -179,21 +293,26 @@ public class Version implements Comparable<Version>, Serializable {
 
     @Override
     public String toString() {
-        String string = major.toString();
-        if (!minor.isEmpty()) {
-            string += "." + minor.toString();
-            if (!micro.isEmpty()) {
-                string += "." + micro.toString();
-                if (!patch.isEmpty()) {
-                    string += "." + patch.toString();
+        String result = string;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder();
+            builder.append(major);
+            if (!minor.isEmpty()) {
+                builder.append('.').append(minor);
+                if (!micro.isEmpty()) {
+                    builder.append('.').append(micro);
+                    if (!patch.isEmpty()) {
+                        builder.append('.').append(patch);
+                    }
                 }
             }
+            if (!qualifier.isEmpty()) {
+                builder.append('-').append(qualifier);
+            }
+            result = builder.toString();
+            string = result;
         }
-        if (!qualifier.isEmpty()) {
-            string += "-" + qualifier;
-        }
-
-        return string;
+        return result;
     }
 
     /**
@@ -212,19 +331,17 @@ public class Version implements Comparable<Version>, Serializable {
      */
     @Override
     public int compareTo(@Nonnull Version version) {
-        if (!major.equals(version.major)) {
-            return major.compareTo(version.major);
+        if (majorKey != version.majorKey) {
+            return Long.compare(majorKey, version.majorKey);
         }
-
-        if (!minor.equals(version.minor)) {
-            return minor.compareTo(version.minor);
+        if (minorKey != version.minorKey) {
+            return Long.compare(minorKey, version.minorKey);
         }
-        if (!micro.equals(version.micro)) {
-            return micro.compareTo(version.micro);
+        if (microKey != version.microKey) {
+            return Long.compare(microKey, version.microKey);
         }
-
-        if (!patch.equals(version.patch)) {
-            return patch.compareTo(version.patch);
+        if (patchKey != version.patchKey) {
+            return Long.compare(patchKey, version.patchKey);
         }
 
         if (qualifier.isEmpty() || version.qualifier.isEmpty()) {
@@ -232,7 +349,7 @@ public class Version implements Comparable<Version>, Serializable {
             return (qualifier.isEmpty() ? 1 : 0) - (version.qualifier.isEmpty() ? 1 : 0);
         }
 
-        return qualifier.compareToIgnoreCase(version.qualifier);
+        return foldedQualifier.compareTo(version.foldedQualifier);
     }
 
     /**
@@ -251,28 +368,24 @@ public class Version implements Comparable<Version>, Serializable {
 
         Version version = (Version) o;
 
-        if (!major.equals(version.major)) {
-            return false;
-        }
-        if (!minor.equals(version.minor)) {
-            return false;
-        }
-        if (!micro.equals(version.micro)) {
-            return false;
-        }
-        if (!patch.equals(version.patch)) {
-            return false;
-        }
-        return qualifier.equalsIgnoreCase(version.qualifier);
+        return majorKey == version.majorKey
+                && minorKey == version.minorKey
+                && microKey == version.microKey
+                && patchKey == version.patchKey
+                && foldedQualifier.equals(version.foldedQualifier);
     }
 
     @Override
     public int hashCode() {
-        int result = major.hashCode();
-        result = 31 * result + minor.hashCode();
-        result = 31 * result + micro.hashCode();
-        result = 31 * result + patch.hashCode();
-        result = 31 * result + qualifier.toLowerCase().hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = major.hashCode();
+            result = 31 * result + minor.hashCode();
+            result = 31 * result + micro.hashCode();
+            result = 31 * result + patch.hashCode();
+            result = 31 * result + foldedQualifier.hashCode();
+            hash = result;
+        }
         return result;
     }
 
@@ -284,9 +397,28 @@ public class Version implements Comparable<Version>, Serializable {
      * MAJOR, MINOR and MICRO components are separated with <code>.</code>
      * The PATCH component, if present, may be separated with <code>.</code> or <code>_</code>
      * The QUALIFIER component, if present, may be separated with <code>.</code> or <code>-</code> and has no formatting constraints
+     * <p>
+     * Versions that have been parsed before are returned from a pool.
      */
     @Nonnull
     public static Version parse(@Nonnull String version) {
+        Version parsed = PARSED.get(version);
+        if (parsed == null) {
+            parsed = parseUncached(version);
+            if (PARSED.size() >= MAX_PARSED) {
+                // Rarely happens, the pool is only there to share the versions that are parsed over and over again
+                PARSED.clear();
+            }
+            Version existing = PARSED.putIfAbsent(version, parsed);
+            if (existing != null) {
+                parsed = existing;
+            }
+        }
+        return parsed;
+    }
+
+    @Nonnull
+    private static Version parseUncached(@Nonnull String version) {
         Scanner scanner = new Scanner(version);
 
         NumberWildcard major = scanner.scanNumberWildcard();
@@ -323,10 +455,19 @@ public class Version implements Comparable<Version>, Serializable {
 
         private int scanDigit() {
             int start = ptr;
+            long number = 0;
             while (isDigit()) {
+                number = number * 10 + Character.digit(version.charAt(ptr), 10);
+                if (number > 0xFFFFFFFFL) {
+                    // Let the parser produce the same error for numbers that do not fit
+                    while (isDigit()) {
+                        ptr++;
+                    }
+                    return Integer.parseUnsignedInt(version.substring(start, ptr));
+                }
                 ptr++;
             }
-            return Integer.parseUnsignedInt(version.substring(start, ptr));
+            return (int) number;
         }
 
         private boolean isWildcard() {
@@ -0,0 +1,245 @@
+package be.vbgn.gradle.pluginupdates.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Sorted index of the available versions of a module
+ * <p>
+ * Finds the highest version that {@link Version#matches(Version) matches} a version constraint, and the versions that
+ * are newer than a version, with binary searches instead of comparing every version.
+ * <p>
+ * Versions are sorted in their {@link Version#compareTo(Version) natural order}, which compares components from MAJOR
+ * to PATCH. All versions that match the components before the wildcard of a constraint are therefore next to each
+ * other, ordered by the component that has the wildcard.
+ * <p>
+ * An index is immutable and can be shared between threads.
+ */
+public final class VersionIndex {
+
+    private static final int PATCH = 3;
+
+    /**
+     * Sort key of a wildcard without numeric component
+     *
+     * @see NumberWildcard#sortKey()
+     */
+    private static final long WILDCARD_KEY = 1L << 32;
+
+    /**
+     * Highest sort key of a component without wildcard
+     */
+    private static final long MAX_NUMBER_KEY = Integer.MAX_VALUE + 1L;
+
+    /**
+     * All versions, in natural order
+     */
+    @Nonnull
+    private final Version[] versions;
+
+    /**
+     * Versions without qualifier, in natural order
+     */
+    @Nonnull
+    private final Version[] unqualifiedVersions;
+
+    /**
+     * Index of the stable versions, created when it is first needed
+     */
+    private volatile VersionIndex stableIndex;
+
+    private VersionIndex(@Nonnull Version[] versions) {
+        this.versions = versions;
+        List<Version> unqualified = new ArrayList<>(versions.length);
+        for (Version version : versions) {
+            if (version.getQualifier().isEmpty()) {
+                unqualified.add(version);
+            }
+        }
+        unqualifiedVersions = unqualified.toArray(new Version[0]);
+    }
+
+    /**
+     * Creates an index of versions
+     *
+     * @param versions The versions to index. The collection is copied.
+     */
+    @Nonnull
+    public static VersionIndex of(@Nonnull Collection<Version> versions) {
+        Version[] sorted = versions.toArray(new Version[0]);
+        // Sorting is stable, so versions that compare equal keep the order of the collection
+        Arrays.sort(sorted);
+        return new VersionIndex(sorted);
+    }
+
+    /**
+     * @return All versions in the index, from lowest to highest
+     */
+    @Nonnull
+    public List<Version> getVersions() {
+        return Collections.unmodifiableList(Arrays.asList(versions));
+    }
+
+    /**
+     * @return Index of the versions in this index that are {@link Version#isStable() stable}
+     */
+    @Nonnull
+    public VersionIndex onlyStable() {
+        VersionIndex index = stableIndex;
+        if (index == null) {
+            List<Version> stable = new ArrayList<>(versions.length);
+            for (Version version : versions) {
+                if (version.isStable()) {
+                    stable.add(version);
+                }
+            }
+            index = stable.size() == versions.length ? this : new VersionIndex(stable.toArray(new Version[0]));
+            stableIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Finds the highest version that matches a version constraint
+     * <p>
+     * The result is the same as taking the maximum of all versions that {@link Version#matches(Version) match} the
+     * constraint. When multiple matching versions compare equal, the one that came first in the indexed collection is
+     * returned.
+     *
+     * @param constraint The version or version constraint to match
+     * @return The highest matching version, or {@link Optional#empty()} when no version matches
+     */
+    @Nonnull
+    public Optional<Version> findHighestMatching(@Nonnull Version constraint) {
+        int component = findWildcardComponent(constraint);
+        if (component < 0) {
+            return findExact(constraint);
+        }
+        // A constraint with a wildcard in the PATCH component also requires an empty qualifier
+        Version[] candidates = component == PATCH ? unqualifiedVersions : versions;
+        long wildcardKey = constraint.sortKey(component);
+        int found;
+        if (wildcardKey == WILDCARD_KEY) {
+            // A wildcard without numeric component matches every nonempty component
+            found = findHighest(candidates, constraint, component, 1, Long.MAX_VALUE);
+        } else {
+            // A wildcard with a numeric component matches larger or equal numbers, with or without wildcard
+            long numberKey = wildcardKey & ~WILDCARD_KEY;
+            found = findHighest(candidates, constraint, component, WILDCARD_KEY | numberKey, Long.MAX_VALUE);
+            if (found < 0) {
+                found = findHighest(candidates, constraint, component, numberKey, MAX_NUMBER_KEY);
+            }
+        }
+        if (found < 0) {
+            return Optional.empty();
+        }
+        while (found > 0 && candidates[found - 1].compareTo(candidates[found]) == 0) {
+            found--;
+        }
+        return Optional.of(candidates[found]);
+    }
+
+    /**
+     * Finds all versions that are newer than a version
+     *
+     * @param version The version to compare with
+     * @return All versions that are larger than the version, from lowest to highest
+     */
+    @Nonnull
+    public List<Version> findNewerThan(@Nonnull Version version) {
+        int low = 0;
+        int high = versions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (versions[middle].compareTo(version) > 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return getVersions().subList(low, versions.length);
+    }
+
+    @Override
+    public String toString() {
+        return "VersionIndex" + Arrays.toString(versions);
+    }
+
+    private static int findWildcardComponent(@Nonnull Version constraint) {
+        for (int i = 0; i <= PATCH; i++) {
+            if (constraint.sortKey(i) >= WILDCARD_KEY) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A constraint without wildcard only matches versions with the same components and exactly the same qualifier
+     */
+    @Nonnull
+    private Optional<Version> findExact(@Nonnull Version constraint) {
+        int end = search(versions, constraint, PATCH, constraint.sortKey(PATCH), false);
+        for (int i = search(versions, constraint, PATCH, constraint.sortKey(PATCH), true); i < end; i++) {
+            if (versions[i].getQualifier().equals(constraint.getQualifier())) {
+                return Optional.of(versions[i]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Finds the highest version with the same components as the constraint before the wildcard component, and a sort
+     * key between two bounds for the wildcard component
+     *
+     * @return Index of the highest version, or -1 when there is no such version
+     */
+    private static int findHighest(@Nonnull Version[] candidates, @Nonnull Version constraint, int component,
+            long lowestKey, long highestKey) {
+        int end = search(candidates, constraint, component, highestKey, false);
+        if (end == 0 || compare(candidates[end - 1], constraint, component, lowestKey) < 0) {
+            return -1;
+        }
+        return end - 1;
+    }
+
+    /**
+     * Binary search on the components up to and including a component
+     *
+     * @param inclusive Whether versions that are equal to the searched position are included
+     * @return Index of the first version that is larger than, or equal to when inclusive, the searched position
+     */
+    private static int search(@Nonnull Version[] candidates, @Nonnull Version constraint, int component, long key,
+            boolean inclusive) {
+        int low = 0;
+        int high = candidates.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(candidates[middle], constraint, component, key);
+            if (comparison > 0 || (inclusive && comparison == 0)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares a version with the components of the constraint before a component, followed by a sort key for the
+     * component itself. Later components are ignored.
+     */
+    private static int compare(@Nonnull Version version, @Nonnull Version constraint, int component, long key) {
+        for (int i = 0; i < component; i++) {
+            if (version.sortKey(i) != constraint.sortKey(i)) {
+                return Long.compare(version.sortKey(i), constraint.sortKey(i));
+            }
+        }
+        return Long.compare(version.sortKey(component), key);
+    }
+}
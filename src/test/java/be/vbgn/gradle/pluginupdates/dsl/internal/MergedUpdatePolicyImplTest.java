@@ -38,6 +38,16 @@ public class MergedUpdatePolicyImplTest {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void ignoreUnstable() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isIgnoreUnstable() {
+            return false;
+        }
+
     }
 
     @Test
@@ -0,0 +1,107 @@
+package be.vbgn.gradle.pluginupdates.dsl.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import be.vbgn.gradle.pluginupdates.dsl.UpdateCheckerConfiguration;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import org.junit.Test;
+
+public class UpdateCheckerConfigurationImplTest {
+
+    @Test
+    public void parallelismDefault() {
+        UpdateCheckerConfiguration configuration = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(1, configuration.getParallelism());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parallelismMustBePositive() {
+        UpdateCheckerConfiguration configuration = new UpdateCheckerConfigurationImpl();
+
+        configuration.setParallelism(0);
+    }
+
+    @Test
+    public void mergeParallelism() {
+        UpdateCheckerConfigurationImpl global = new UpdateCheckerConfigurationImpl();
+        global.setParallelism(4);
+        UpdateCheckerConfigurationImpl unconfigured = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(4, UpdateCheckerConfigurationImpl.merge(global, unconfigured).getParallelism());
+
+        UpdateCheckerConfigurationImpl project = new UpdateCheckerConfigurationImpl();
+        project.setParallelism(2);
+
+        assertEquals(2, UpdateCheckerConfigurationImpl.merge(global, project).getParallelism());
+    }
+
+    @Test
+    public void mergeResolvedVersionsCacheTime() {
+        UpdateCheckerConfigurationImpl global = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(Duration.ZERO, global.getResolvedVersionsCacheTime());
+
+        global.setResolvedVersionsCacheTime(Duration.ofHours(2));
+        UpdateCheckerConfigurationImpl project = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(Duration.ofHours(2),
+                UpdateCheckerConfigurationImpl.merge(global, project).getResolvedVersionsCacheTime());
+
+        project.setResolvedVersionsCacheTime(Duration.ZERO);
+
+        assertEquals(Duration.ZERO,
+                UpdateCheckerConfigurationImpl.merge(global, project).getResolvedVersionsCacheTime());
+    }
+
+    @Test
+    public void mergeInvalidResolvesCacheTime() {
+        UpdateCheckerConfigurationImpl global = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(Duration.ofDays(1), global.getInvalidResolvesCacheTime());
+
+        global.setInvalidResolvesCacheTime(Duration.ofDays(3));
+        UpdateCheckerConfigurationImpl project = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(Duration.ofDays(3),
+                UpdateCheckerConfigurationImpl.merge(global, project).getInvalidResolvesCacheTime());
+
+        project.setInvalidResolvesCacheTime(Duration.ZERO);
+
+        assertEquals(Duration.ZERO,
+                UpdateCheckerConfigurationImpl.merge(global, project).getInvalidResolvesCacheTime());
+    }
+
+    @Test
+    public void mergeCheckInterval() {
+        UpdateCheckerConfigurationImpl global = new UpdateCheckerConfigurationImpl();
+
+        assertEquals(Duration.ZERO, global.getCheckInterval());
+
+        global.setCheckInterval(Duration.ofHours(4));
+
+        assertEquals(Duration.ofHours(4),
+                UpdateCheckerConfigurationImpl.merge(global, new UpdateCheckerConfigurationImpl()).getCheckInterval());
+    }
+
+    @Test
+    public void serializeSettings() throws IOException, ClassNotFoundException {
+        UpdateCheckerConfigurationImpl configuration = new UpdateCheckerConfigurationImpl();
+        configuration.setParallelism(3);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            outputStream.writeObject(configuration);
+        }
+        try (ObjectInputStream inputStream = new ObjectInputStream(
+                new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))) {
+            UpdateCheckerConfigurationImpl deserialized = (UpdateCheckerConfigurationImpl) inputStream.readObject();
+            assertEquals(3, deserialized.getParallelism());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package be.vbgn.gradle.pluginupdates.dsl.internal;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
@@ -198,5 +199,17 @@ public class UpdatePolicyImplTest {
         assertEquals(new DefaultDependency("org.gradle", "gradle-hello-world-plugin", "+"), dependencies.get(0));
     }
 
+    @Test
+    public void ignoreUnstable() {
+        UpdatePolicyImpl updatePolicy = new UpdatePolicyImpl();
+        assertFalse(updatePolicy.isIgnoreUnstable());
 
+        updatePolicy.ignoreUnstable();
+
+        assertTrue(updatePolicy.isIgnoreUnstable());
+        assertTrue(new MergedUpdatePolicyImpl(Arrays.asList(new UpdatePolicyImpl(), updatePolicy))
+                .isIgnoreUnstable());
+        assertFalse(new MergedUpdatePolicyImpl(Arrays.asList(new UpdatePolicyImpl(), new UpdatePolicyImpl()))
+                .isIgnoreUnstable());
+    }
 }
@@ -0,0 +1,80 @@
+package be.vbgn.gradle.pluginupdates.update;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+public class UpdateReportTest {
+
+    private static Update createUpdate(Dependency original, Dependency... updates) {
+        return new Update() {
+            @Nonnull
+            @Override
+            public Dependency getOriginal() {
+                return original;
+            }
+
+            @Nonnull
+            @Override
+            public List<Dependency> getUpdates() {
+                return Arrays.asList(updates);
+            }
+        };
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        Dependency original1 = new DefaultDependency("be.vbgn.gradle", "test1", "1.0");
+        Dependency original2 = new DefaultDependency("be.vbgn.gradle", "test2", "0.1.2", "sources", "jar");
+        Dependency original3 = new DefaultDependency("be.vbgn.gradle", "test3", "2.0-rc1", "", "pom");
+        List<Update> updates = Arrays.asList(
+                createUpdate(original1, original1.withVersion("1.1"), original1.withVersion("2.0")),
+                createUpdate(original2, DefaultFailedDependency.fromDependency(original2.withVersion("0.+"), null),
+                        original2.withVersion("0.1.3")),
+                createUpdate(original3)
+        );
+
+        List<Update> readUpdates = UpdateReport.fromString(UpdateReport.toString(updates));
+
+        assertEquals(3, readUpdates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            assertEquals(updates.get(i).getOriginal(), readUpdates.get(i).getOriginal());
+            assertEquals(updates.get(i).getUpdates().size(), readUpdates.get(i).getUpdates().size());
+            assertEquals(updates.get(i).isOutdated(), readUpdates.get(i).isOutdated());
+        }
+        assertEquals(original1.withVersion("2.0"), readUpdates.get(0).getUpdates().get(1));
+        assertTrue(readUpdates.get(1).getUpdates().get(0) instanceof FailedDependency);
+        assertEquals("0.+", readUpdates.get(1).getUpdates().get(0).getVersion().toString());
+        assertEquals(original2.withVersion("0.1.3"), readUpdates.get(1).getUpdates().get(1));
+        assertEquals(Collections.emptyList(), readUpdates.get(2).getUpdates());
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidHeader() throws IOException {
+        UpdateReport.fromString("be.vbgn.gradle:test1:1.0::jar\n");
+    }
+
+    @Test(expected = IOException.class)
+    public void invalidDependency() throws IOException {
+        UpdateReport.fromString(UpdateReport.toString(Collections.emptyList()) + "be.vbgn.gradle:test1\n");
+    }
+
+    @Test
+    public void readWriteDependency() throws IOException {
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test1", "1.0", "sources", "pom");
+        String notation = UpdateReport.writeDependency(dependency);
+
+        assertEquals("be.vbgn.gradle:test1:1.0:sources:pom", notation);
+        assertEquals(dependency, UpdateReport.readDependency(notation));
+    }
+}
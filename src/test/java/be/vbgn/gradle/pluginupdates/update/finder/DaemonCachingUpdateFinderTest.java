@@ -0,0 +1,97 @@
+package be.vbgn.gradle.pluginupdates.update.finder;
+
+import static org.junit.Assert.assertEquals;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DaemonCachingUpdateFinderTest {
+
+    private static final long MAX_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private static class CountingUpdateFinder implements UpdateFinder {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Nonnull
+        @Override
+        public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+            lookups.incrementAndGet();
+            if (dependency.getName().equals("failing")) {
+                return Stream.of(DefaultFailedDependency.fromDependency(dependency.withVersion("+"), null));
+            }
+            return Stream.of(dependency.withVersion("2.0.0"));
+        }
+    }
+
+    @Before
+    public void clearResults() {
+        DaemonCachingUpdateFinder.clear();
+    }
+
+    @Test
+    public void remembersResultsAcrossFinders() {
+        CountingUpdateFinder backingFinder1 = new CountingUpdateFinder();
+        CountingUpdateFinder backingFinder2 = new CountingUpdateFinder();
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        assertEquals(Collections.singletonList(dependency.withVersion("2.0.0")),
+                new DaemonCachingUpdateFinder(backingFinder1, "scope", MAX_AGE, false).findUpdates(dependency)
+                        .collect(Collectors.toList()));
+        // A new build creates a new finder
+        assertEquals(Collections.singletonList(dependency.withVersion("2.0.0")),
+                new DaemonCachingUpdateFinder(backingFinder2, "scope", MAX_AGE, false).findUpdates(dependency)
+                        .collect(Collectors.toList()));
+
+        assertEquals(1, backingFinder1.lookups.get());
+        assertEquals(0, backingFinder2.lookups.get());
+    }
+
+    @Test
+    public void separatesScopes() {
+        CountingUpdateFinder backingFinder = new CountingUpdateFinder();
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        new DaemonCachingUpdateFinder(backingFinder, "scope1", MAX_AGE, false).findUpdates(dependency);
+        new DaemonCachingUpdateFinder(backingFinder, "scope2", MAX_AGE, false).findUpdates(dependency);
+
+        assertEquals(2, backingFinder.lookups.get());
+    }
+
+    @Test
+    public void refreshAndExpiryLookUpAgain() throws InterruptedException {
+        CountingUpdateFinder backingFinder = new CountingUpdateFinder();
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        new DaemonCachingUpdateFinder(backingFinder, "scope", MAX_AGE, false).findUpdates(dependency);
+        new DaemonCachingUpdateFinder(backingFinder, "scope", MAX_AGE, true).findUpdates(dependency);
+        assertEquals(2, backingFinder.lookups.get());
+
+        Thread.sleep(20);
+        new DaemonCachingUpdateFinder(backingFinder, "scope", 10, false).findUpdates(dependency);
+        assertEquals(3, backingFinder.lookups.get());
+    }
+
+    @Test
+    public void doesNotRememberFailures() {
+        CountingUpdateFinder backingFinder = new CountingUpdateFinder();
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "failing", "1.0.0");
+        Dependency otherDependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        UpdateFinder updateFinder = new DaemonCachingUpdateFinder(backingFinder, "scope", MAX_AGE, false);
+        updateFinder.findAllUpdates(Arrays.asList(dependency, otherDependency));
+        updateFinder.findAllUpdates(Arrays.asList(dependency, otherDependency));
+
+        assertEquals(3, backingFinder.lookups.get());
+    }
+}
@@ -16,8 +16,14 @@ import be.vbgn.gradle.pluginupdates.update.resolver.DependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.FailureCachingDependencyResolver;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesCache;
 import be.vbgn.gradle.pluginupdates.version.Version;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -88,10 +94,11 @@ public class DefaultUpdateFinderTest {
         // Say that nothing is cached
         when(invalidResolvesCacheMock.get(any(Dependency.class))).thenReturn(Optional.empty());
         Dependency original = new DefaultDependency("org.gradle", "gradle-hello-world-plugin", "0.1");
+        // Newer versions that do not match the narrower constraints, so every constraint is resolved
         when(dependencyResolver.resolve(original.withVersion("+"))).thenReturn(
-                Stream.of(original.withVersion("0.1")));
+                Stream.of(original.withVersion("1.0")));
         when(dependencyResolver.resolve(original.withVersion("0.+"))).thenReturn(
-                Stream.of(original.withVersion("0.1")));
+                Stream.of(original.withVersion("0.2")));
         when(dependencyResolver.resolve(original.withVersion("0.1.+"))).thenReturn(
                 Stream.of(DefaultFailedDependency.fromDependency(original.withVersion("0.1.+"), null)));
 
@@ -126,10 +133,11 @@ public class DefaultUpdateFinderTest {
         Dependency original = new DefaultDependency("org.gradle", "gradle-hello-world-plugin", "0.1");
         // Say that nothing is cached
         when(invalidResolvesCacheMock.get(any(Dependency.class))).thenReturn(Optional.empty());
+        // Newer versions that do not match the narrower constraints, so every constraint is resolved
         when(dependencyResolver.resolve(original.withVersion("+"))).thenReturn(
-                Stream.of(original.withVersion("0.1")));
+                Stream.of(original.withVersion("1.0")));
         when(dependencyResolver.resolve(original.withVersion("0.+"))).thenReturn(
-                Stream.of(original.withVersion("0.1")));
+                Stream.of(original.withVersion("0.2")));
         when(dependencyResolver.resolve(original.withVersion("0.1.+"))).thenReturn(
                 Stream.of(DefaultFailedDependency.fromDependency(original.withVersion("0.1.+"), null)));
         Throwable marker = new RuntimeException("Marker");
@@ -153,4 +161,87 @@ public class DefaultUpdateFinderTest {
         verifyNoMoreInteractions(dependencyResolver);
 
     }
+
+    @Test
+    public void findAllUpdatesResolvesTogether() {
+        DependencyResolver dependencyResolver = Mockito.mock(DependencyResolver.class);
+        UpdateFinder updateFinder = new DefaultUpdateFinder(dependencyResolver, new DefaultVersionProvider());
+
+        Dependency original = new DefaultDependency("org.gradle", "gradle-hello-world-plugin", "0.1");
+        Dependency other = new DefaultDependency("be.vbgn.gradle", "test", "1");
+
+        Map<Dependency, List<Dependency>> resolved = new HashMap<>();
+        resolved.put(original.withVersion("+"), Collections.singletonList(original.withVersion("0.2")));
+        resolved.put(original.withVersion("0.1.+"), Collections.singletonList(
+                DefaultFailedDependency.fromDependency(original.withVersion("0.1.+"), null)));
+        resolved.put(other.withVersion("+"), Collections.singletonList(
+                DefaultFailedDependency.fromDependency(other.withVersion("+"), null)));
+        resolved.put(other.withVersion("1.+"), Collections.singletonList(other.withVersion("1.3")));
+        when(dependencyResolver.resolveAll(any())).thenReturn(resolved);
+
+        Map<Dependency, List<Dependency>> updates = updateFinder.findAllUpdates(Arrays.asList(original, other));
+
+        // The widest constraints of all dependencies are resolved together, then the narrower ones.
+        // 0.+ is not resolved, because the 0.2 that + resolved to also matches 0.+
+        verify(dependencyResolver)
+                .resolveAll(new HashSet<>(Arrays.asList(original.withVersion("+"), other.withVersion("+"))));
+        verify(dependencyResolver)
+                .resolveAll(new HashSet<>(Arrays.asList(original.withVersion("0.1.+"), other.withVersion("1.+"))));
+        verifyNoMoreInteractions(dependencyResolver);
+
+        // Allowed failures are removed, other failures are kept
+        assertEquals(Arrays.asList(original.withVersion("0.2"), original.withVersion("0.2")),
+                updates.get(original));
+        assertEquals(2, updates.get(other).size());
+        assertTrue(updates.get(other).contains(other.withVersion("1.3")));
+        assertEquals(1, updates.get(other).stream().filter(d -> d instanceof FailedDependency).count());
+    }
+
+    private static class CountingResolver implements DependencyResolver {
+
+        private final Map<Dependency, Dependency> versions = new HashMap<>();
+        private final List<Dependency> resolved = new ArrayList<>();
+
+        @Override
+        public Stream<Dependency> resolve(Dependency dependency) {
+            resolved.add(dependency);
+            return Stream.of(versions.getOrDefault(dependency, DefaultFailedDependency.fromDependency(dependency, null)));
+        }
+    }
+
+    @Test
+    public void upToDateDependencyOnlyResolvesWidestConstraint() {
+        CountingResolver dependencyResolver = new CountingResolver();
+        UpdateFinder updateFinder = new DefaultUpdateFinder(dependencyResolver, new DefaultVersionProvider());
+
+        Dependency original = new DefaultDependency("be.vbgn.gradle", "test", "1.2.3");
+        dependencyResolver.versions.put(original.withVersion("+"), original);
+
+        assertEquals(Collections.singletonList(original),
+                updateFinder.findUpdates(original).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(original.withVersion("+")), dependencyResolver.resolved);
+
+        dependencyResolver.resolved.clear();
+        assertEquals(Collections.singletonList(original),
+                updateFinder.findAllUpdates(Collections.singletonList(original)).get(original));
+        assertEquals(Collections.singletonList(original.withVersion("+")), dependencyResolver.resolved);
+    }
+
+    @Test
+    public void narrowerConstraintReusesWiderResult() {
+        CountingResolver dependencyResolver = new CountingResolver();
+        UpdateFinder updateFinder = new DefaultUpdateFinder(dependencyResolver, new DefaultVersionProvider());
+
+        Dependency original = new DefaultDependency("be.vbgn.gradle", "test", "1.2.3");
+        dependencyResolver.versions.put(original.withVersion("+"), original.withVersion("1.4.0"));
+        dependencyResolver.versions.put(original.withVersion("1.2.+"), original.withVersion("1.2.5"));
+        dependencyResolver.versions.put(original.withVersion("1.2.3.+"), original.withVersion("1.2.3.1"));
+
+        List<Dependency> updates = updateFinder.findUpdates(original).collect(Collectors.toList());
+
+        assertEquals(Arrays.asList(original.withVersion("1.4.0"), original.withVersion("1.4.0"),
+                original.withVersion("1.2.5"), original.withVersion("1.2.3.1")), updates);
+        assertEquals(Arrays.asList(original.withVersion("+"), original.withVersion("1.2.+"),
+                original.withVersion("1.2.3.+")), dependencyResolver.resolved);
+    }
 }
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
 import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.version.Version;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.Test;
@@ -80,4 +81,15 @@ public class DefaultVersionProviderTest {
 
     }
 
+    @Test
+    public void generateVersionsWidestFirst() {
+        DefaultVersionProvider versionProvider = new DefaultVersionProvider();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test123", "1.2.3");
+        List<Version> versions = versionProvider.getUpdateVersions(dependency)
+                .map(FailureAllowedVersion::getVersion)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(Version.parse("+"), Version.parse("1.+"), Version.parse("1.2.+"),
+                Version.parse("1.2.3.+")), versions);
+    }
 }
@@ -0,0 +1,101 @@
+package be.vbgn.gradle.pluginupdates.update.finder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+
+public class MemoizingUpdateFinderTest {
+
+    private static class CountingUpdateFinder implements UpdateFinder {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Nonnull
+        @Override
+        public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+            lookups.incrementAndGet();
+            return Stream.of(dependency.withVersion("2.0.0"));
+        }
+    }
+
+    @Test
+    public void sharesResultsInSameScope() {
+        ConcurrentMap<MemoizingUpdateFinder.Key, CompletableFuture<List<Dependency>>> results = new ConcurrentHashMap<>();
+        CountingUpdateFinder backingFinder1 = new CountingUpdateFinder();
+        CountingUpdateFinder backingFinder2 = new CountingUpdateFinder();
+        UpdateFinder updateFinder1 = new MemoizingUpdateFinder(backingFinder1, results, "scope");
+        UpdateFinder updateFinder2 = new MemoizingUpdateFinder(backingFinder2, results, "scope");
+
+        Dependency dependency1 = new DefaultDependency("be.vbgn.gradle", "test1", "1.0.0");
+        Dependency dependency2 = new DefaultDependency("be.vbgn.gradle", "test2", "1.0.0");
+
+        assertEquals(Collections.singletonList(dependency1.withVersion("2.0.0")),
+                updateFinder1.findUpdates(dependency1).collect(Collectors.toList()));
+
+        assertEquals(Collections.singletonList(dependency1.withVersion("2.0.0")),
+                updateFinder2.findAllUpdates(Arrays.asList(dependency1, dependency2)).get(dependency1));
+        assertEquals(Collections.singletonList(dependency2.withVersion("2.0.0")),
+                updateFinder2.findAllUpdates(Arrays.asList(dependency1, dependency2)).get(dependency2));
+
+        assertEquals(1, backingFinder1.lookups.get());
+        assertEquals(1, backingFinder2.lookups.get());
+    }
+
+    @Test
+    public void separatesScopes() {
+        ConcurrentMap<MemoizingUpdateFinder.Key, CompletableFuture<List<Dependency>>> results = new ConcurrentHashMap<>();
+        CountingUpdateFinder backingFinder1 = new CountingUpdateFinder();
+        CountingUpdateFinder backingFinder2 = new CountingUpdateFinder();
+        UpdateFinder updateFinder1 = new MemoizingUpdateFinder(backingFinder1, results, "scope1");
+        UpdateFinder updateFinder2 = new MemoizingUpdateFinder(backingFinder2, results, "scope2");
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test1", "1.0.0");
+
+        updateFinder1.findUpdates(dependency).collect(Collectors.toList());
+        updateFinder2.findUpdates(dependency).collect(Collectors.toList());
+
+        assertEquals(1, backingFinder1.lookups.get());
+        assertEquals(1, backingFinder2.lookups.get());
+    }
+
+    @Test
+    public void doesNotRememberFailures() {
+        ConcurrentMap<MemoizingUpdateFinder.Key, CompletableFuture<List<Dependency>>> results = new ConcurrentHashMap<>();
+        AtomicInteger lookups = new AtomicInteger();
+        UpdateFinder updateFinder = new MemoizingUpdateFinder(new UpdateFinder() {
+            @Nonnull
+            @Override
+            public Stream<Dependency> findUpdates(@Nonnull Dependency dependency) {
+                if (lookups.incrementAndGet() == 1) {
+                    throw new IllegalStateException("First lookup fails");
+                }
+                return Stream.empty();
+            }
+        }, results, "scope");
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test1", "1.0.0");
+
+        try {
+            updateFinder.findUpdates(dependency);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("First lookup fails", e.getMessage());
+        }
+
+        assertEquals(Collections.emptyList(), updateFinder.findUpdates(dependency).collect(Collectors.toList()));
+        assertEquals(2, lookups.get());
+    }
+}
@@ -0,0 +1,59 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.artifacts.LenientConfiguration;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DefaultDependencyResolverTest {
+
+    private static ResolvedDependency resolvedDependency(String group, String name, String version) {
+        ResolvedDependency resolvedDependency = Mockito.mock(ResolvedDependency.class);
+        when(resolvedDependency.getModuleGroup()).thenReturn(group);
+        when(resolvedDependency.getModuleName()).thenReturn(name);
+        when(resolvedDependency.getModuleVersion()).thenReturn(version);
+        return resolvedDependency;
+    }
+
+    @Test
+    public void substitutedModuleIsResolvedOnItsOwn() {
+        ConfigurationContainer configurationContainer = Mockito.mock(ConfigurationContainer.class);
+        Configuration configuration = Mockito.mock(Configuration.class);
+        ResolvedConfiguration resolvedConfiguration = Mockito.mock(ResolvedConfiguration.class);
+        LenientConfiguration lenientConfiguration = Mockito.mock(LenientConfiguration.class);
+        when(configurationContainer.detachedConfiguration(any())).thenReturn(configuration);
+        when(configuration.getResolvedConfiguration()).thenReturn(resolvedConfiguration);
+        when(resolvedConfiguration.getLenientConfiguration()).thenReturn(lenientConfiguration);
+
+        Dependency relocated = new DefaultDependency("be.vbgn.gradle", "old", "+");
+        Dependency other = new DefaultDependency("be.vbgn.gradle", "other", "+");
+        ResolvedDependency substitute = resolvedDependency("be.vbgn.gradle", "new", "2.0");
+        // The batch of both dependencies, then the substituted dependency on its own
+        when(lenientConfiguration.getAllModuleDependencies()).thenReturn(
+                new HashSet<>(Arrays.asList(substitute, resolvedDependency("be.vbgn.gradle", "other", "1.0"))),
+                Collections.singleton(substitute));
+
+        DependencyResolver resolver = new DefaultDependencyResolver(Mockito.mock(DependencyHandler.class),
+                configurationContainer);
+        Map<Dependency, List<Dependency>> resolved = resolver.resolveAll(Arrays.asList(relocated, other));
+
+        assertEquals(Collections.singletonList(new DefaultDependency("be.vbgn.gradle", "new", "2.0")),
+                resolved.get(relocated));
+        assertEquals(Collections.singletonList(other.withVersion("1.0")), resolved.get(other));
+    }
+}
@@ -14,7 +14,10 @@ import be.vbgn.gradle.pluginupdates.dependency.Dependency;
 import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesCache;
 import be.vbgn.gradle.pluginupdates.update.resolver.internal.InvalidResolvesMemoryCache;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.Test;
@@ -89,4 +92,50 @@ public class FailureCachingDependencyResolverTest {
         verifyNoMoreInteractions(backingResolver);
     }
 
+    @Test
+    public void resolveAllOnlyResolvesUncachedDependencies() {
+        DependencyResolver backingResolver = Mockito.mock(DependencyResolver.class);
+        InvalidResolvesCache invalidResolvesCache = new InvalidResolvesMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+        Dependency failingDependency = new DefaultDependency("be.vbgn.gradle", "test", "1.1.+");
+        Dependency resolvedDependency = dependency.withVersion("1.0.1");
+        FailedDependency failedDependency = DefaultFailedDependency
+                .fromDependency(failingDependency, new Throwable("marker"));
+
+        invalidResolvesCache.put(failingDependency);
+        when(backingResolver.resolveAll(Collections.singletonList(dependency)))
+                .thenReturn(Collections.singletonMap(dependency, Collections.singletonList(resolvedDependency)));
+
+        DependencyResolver resolver = new FailureCachingDependencyResolver(backingResolver, invalidResolvesCache);
+
+        Map<Dependency, List<Dependency>> resolved = resolver.resolveAll(Arrays.asList(dependency, failingDependency));
+
+        assertEquals(Collections.singletonList(resolvedDependency), resolved.get(dependency));
+        assertEquals(1, resolved.get(failingDependency).size());
+        assertTrue(resolved.get(failingDependency).get(0) instanceof FailedDependency);
+        assertEquals(failedDependency.getVersion(), resolved.get(failingDependency).get(0).getVersion());
+
+        verify(backingResolver).resolveAll(Collections.singletonList(dependency));
+        verifyNoMoreInteractions(backingResolver);
+    }
+
+    @Test
+    public void resolveAllCachesFailures() {
+        DependencyResolver backingResolver = Mockito.mock(DependencyResolver.class);
+        InvalidResolvesCache invalidResolvesCache = new InvalidResolvesMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+        FailedDependency failedDependency = DefaultFailedDependency.fromDependency(dependency, new Throwable("marker"));
+
+        when(backingResolver.resolveAll(Collections.singletonList(dependency)))
+                .thenReturn(Collections.singletonMap(dependency, Collections.singletonList(failedDependency)));
+
+        DependencyResolver resolver = new FailureCachingDependencyResolver(backingResolver, invalidResolvesCache);
+
+        resolver.resolveAll(Collections.singletonList(dependency));
+
+        assertTrue(invalidResolvesCache.get(dependency).isPresent());
+    }
+
 }
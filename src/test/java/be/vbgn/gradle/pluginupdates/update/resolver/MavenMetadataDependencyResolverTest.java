@@ -0,0 +1,263 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+public class MavenMetadataDependencyResolverTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private File metadataFile;
+
+    @Before
+    public void createRepository() throws IOException {
+        File moduleDir = new File(tempDir.getRoot(), "be/vbgn/gradle/test");
+        assertTrue(moduleDir.mkdirs());
+        metadataFile = new File(moduleDir, "maven-metadata.xml");
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata>\n"
+                + "  <groupId>be.vbgn.gradle</groupId>\n"
+                + "  <artifactId>test</artifactId>\n"
+                + "  <versioning>\n"
+                + "    <versions>\n"
+                + "      <version>1.0.0</version>\n"
+                + "      <version>1.0.1</version>\n"
+                + "      <version>1.2.0</version>\n"
+                + "      <version>1.2.3</version>\n"
+                + "      <version>2.0.0</version>\n"
+                + "      <version>2.1.0</version>\n"
+                + "    </versions>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n";
+        Files.write(metadataFile.toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private DependencyResolver createResolver(DependencyResolver fallbackResolver) {
+        return new MavenMetadataDependencyResolver(Collections.singletonList(tempDir.getRoot().toURI()),
+                fallbackResolver);
+    }
+
+    @Test
+    public void resolvesAllWildcardLevelsFromOneFetch() {
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = createResolver(fallbackResolver);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        assertEquals(Collections.singletonList(dependency.withVersion("2.1.0")),
+                resolver.resolve(dependency.withVersion("+")).collect(Collectors.toList()));
+
+        // All following resolves are answered without reading the metadata again
+        assertTrue(metadataFile.delete());
+
+        assertEquals(Collections.singletonList(dependency.withVersion("1.2.3")),
+                resolver.resolve(dependency.withVersion("1.+")).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(dependency.withVersion("1.2.3")),
+                resolver.resolve(dependency.withVersion("1.2.+")).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(dependency.withVersion("1.0.1")),
+                resolver.resolve(dependency.withVersion("1.0.+")).collect(Collectors.toList()));
+
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+
+    @Test
+    public void resolvesModulesInParallel() throws IOException {
+        File otherModuleDir = new File(tempDir.getRoot(), "be/vbgn/gradle/other");
+        assertTrue(otherModuleDir.mkdirs());
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata>\n"
+                + "  <versioning>\n"
+                + "    <versions>\n"
+                + "      <version>3.0.0</version>\n"
+                + "      <version>3.1.0</version>\n"
+                + "    </versions>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n";
+        Files.write(new File(otherModuleDir, "maven-metadata.xml").toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = new MavenMetadataDependencyResolver(
+                Collections.singletonList(tempDir.getRoot().toURI()), fallbackResolver, false, 4);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.+");
+        Dependency otherDependency = new DefaultDependency("be.vbgn.gradle", "other", "+");
+
+        Map<Dependency, List<Dependency>> resolved = resolver.resolveAll(Arrays.asList(dependency, otherDependency));
+
+        assertEquals(Collections.singletonList(dependency.withVersion("1.2.3")), resolved.get(dependency));
+        assertEquals(Collections.singletonList(otherDependency.withVersion("3.1.0")), resolved.get(otherDependency));
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+
+    @Test
+    public void noMatchingVersionIsFailure() {
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = createResolver(fallbackResolver);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "3.+");
+
+        List<Dependency> resolved = resolver.resolve(dependency).collect(Collectors.toList());
+
+        assertEquals(1, resolved.size());
+        assertTrue(resolved.get(0) instanceof FailedDependency);
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+
+    @Test
+    public void fixedVersionsUseFallback() {
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = createResolver(fallbackResolver);
+
+        Dependency dynamicDependency = new DefaultDependency("be.vbgn.gradle", "test", "2.+");
+        Dependency fixedDependency = new DefaultDependency("be.vbgn.gradle", "test", "1.2.0");
+        List<Dependency> fixedResolved = Collections.singletonList(fixedDependency);
+
+        when(fallbackResolver.resolveAll(Collections.singletonList(fixedDependency)))
+                .thenReturn(Collections.singletonMap(fixedDependency, fixedResolved));
+
+        Map<Dependency, List<Dependency>> resolved = resolver
+                .resolveAll(Arrays.asList(dynamicDependency, fixedDependency));
+
+        assertEquals(Collections.singletonList(dynamicDependency.withVersion("2.1.0")),
+                resolved.get(dynamicDependency));
+        assertEquals(fixedResolved, resolved.get(fixedDependency));
+        verify(fallbackResolver).resolveAll(Collections.singletonList(fixedDependency));
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+
+    @Test
+    public void missingMetadataUsesFallback() {
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = createResolver(fallbackResolver);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "other", "1.+");
+        Dependency resolvedDependency = dependency.withVersion("1.0.0");
+
+        when(fallbackResolver.resolve(dependency)).then(invocation -> Stream.of(resolvedDependency));
+
+        assertEquals(Collections.singletonList(resolvedDependency),
+                resolver.resolve(dependency).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void skipsVersionsThatCanNotBeParsed() throws IOException {
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata>\n"
+                + "  <versioning>\n"
+                + "    <versions>\n"
+                + "      <version>1.0.0</version>\n"
+                + "      <version>1.0.0+build.5</version>\n"
+                + "      <version>1.1.0</version>\n"
+                + "    </versions>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n";
+        Files.write(metadataFile.toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = createResolver(fallbackResolver);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.+");
+
+        assertEquals(Collections.singletonList(dependency.withVersion("1.1.0")),
+                resolver.resolve(dependency).collect(Collectors.toList()));
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+
+    @Test
+    public void unsupportedRepositoriesUseFallback() {
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = new MavenMetadataDependencyResolver(null, fallbackResolver);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.+");
+        Dependency resolvedDependency = dependency.withVersion("1.0.0");
+
+        when(fallbackResolver.resolve(dependency)).then(invocation -> Stream.of(resolvedDependency));
+
+        assertEquals(Collections.singletonList(resolvedDependency),
+                resolver.resolve(dependency).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void restrictedRepositoriesAreNotReadDirectly() {
+        Project project = ProjectBuilder.builder().build();
+        RepositoryHandler repositories = project.getBuildscript().getRepositories();
+        repositories.maven(repository -> repository.setUrl(tempDir.getRoot()));
+
+        assertEquals(Collections.singletonList(tempDir.getRoot().toURI()),
+                MavenMetadataDependencyResolver.findMavenRepositories(repositories));
+
+        repositories.maven(repository -> {
+            repository.setUrl("https://repo.example.com/private");
+            repository.credentials(credentials -> credentials.setUsername("user"));
+        });
+        assertNull("Credentials are only known to gradle",
+                MavenMetadataDependencyResolver.findMavenRepositories(repositories));
+
+        repositories.remove(repositories.get(1));
+        repositories.maven(repository -> {
+            repository.setUrl("https://repo.example.com/filtered");
+            repository.content(content -> content.includeGroup("be.vbgn.gradle"));
+        });
+        assertNull("Content filters are only known to gradle",
+                MavenMetadataDependencyResolver.findMavenRepositories(repositories));
+    }
+
+    @Test
+    public void ignoresUnstableVersions() throws IOException {
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata>\n"
+                + "  <versioning>\n"
+                + "    <versions>\n"
+                + "      <version>1.2.3</version>\n"
+                + "      <version>1.3.0-rc1</version>\n"
+                + "      <version>2.0.0-SNAPSHOT</version>\n"
+                + "    </versions>\n"
+                + "  </versioning>\n"
+                + "</metadata>\n";
+        Files.write(metadataFile.toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+        DependencyResolver fallbackResolver = Mockito.mock(DependencyResolver.class);
+        DependencyResolver resolver = new MavenMetadataDependencyResolver(
+                Collections.singletonList(tempDir.getRoot().toURI()), fallbackResolver, true);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        assertEquals(Collections.singletonList(dependency.withVersion("1.2.3")),
+                resolver.resolve(dependency.withVersion("+")).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(dependency.withVersion("1.2.3")),
+                resolver.resolve(dependency.withVersion("1.+")).collect(Collectors.toList()));
+        // Only unstable versions match, so there is nothing to report
+        assertEquals(Collections.emptyList(),
+                resolver.resolve(dependency.withVersion("1.3.+")).collect(Collectors.toList()));
+        // No version at all matches, which is still a failure
+        List<Dependency> resolved = resolver.resolve(dependency.withVersion("3.+")).collect(Collectors.toList());
+        assertEquals(1, resolved.size());
+        assertTrue(resolved.get(0) instanceof FailedDependency);
+
+        verifyNoMoreInteractions(fallbackResolver);
+    }
+}
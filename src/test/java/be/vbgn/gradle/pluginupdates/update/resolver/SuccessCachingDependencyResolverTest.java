@@ -0,0 +1,126 @@
+package be.vbgn.gradle.pluginupdates.update.resolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.DefaultFailedDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsCache;
+import be.vbgn.gradle.pluginupdates.update.resolver.internal.ResolvedVersionsMemoryCache;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public class SuccessCachingDependencyResolverTest {
+
+    @Test
+    public void cachesSuccessfulResolves() {
+        AtomicInteger resolves = new AtomicInteger();
+        DependencyResolver backingResolver = dependency -> {
+            resolves.incrementAndGet();
+            return Stream.of(dependency.withVersion("1.0.1"));
+        };
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+
+        DependencyResolver resolver = new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache,
+                "repositories", false);
+
+        // Resolve 2 times
+        resolver.resolve(dependency).collect(Collectors.toList());
+        List<Dependency> resolvedDependencies = resolver.resolve(dependency).collect(Collectors.toList());
+
+        assertEquals(Collections.singletonList(dependency.withVersion("1.0.1")), resolvedDependencies);
+        assertEquals(1, resolves.get());
+    }
+
+    @Test
+    public void doesNotCacheFailures() {
+        AtomicInteger resolves = new AtomicInteger();
+        DependencyResolver backingResolver = dependency -> {
+            resolves.incrementAndGet();
+            return Stream.of(DefaultFailedDependency.fromDependency(dependency, null));
+        };
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+
+        DependencyResolver resolver = new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache,
+                "repositories", false);
+
+        resolver.resolve(dependency).collect(Collectors.toList());
+        resolver.resolve(dependency).collect(Collectors.toList());
+
+        assertEquals(2, resolves.get());
+        assertFalse(resolvedVersionsCache.get("repositories", dependency).isPresent());
+    }
+
+    @Test
+    public void separatesRepositories() {
+        AtomicInteger resolves = new AtomicInteger();
+        DependencyResolver backingResolver = dependency -> {
+            resolves.incrementAndGet();
+            return Stream.of(dependency.withVersion("1.0.1"));
+        };
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+
+        new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache, "repositories1", false)
+                .resolve(dependency).collect(Collectors.toList());
+        new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache, "repositories2", false)
+                .resolve(dependency).collect(Collectors.toList());
+
+        assertEquals(2, resolves.get());
+    }
+
+    @Test
+    public void refreshSkipsCache() {
+        AtomicInteger resolves = new AtomicInteger();
+        DependencyResolver backingResolver = dependency -> Stream
+                .of(dependency.withVersion("1.0." + resolves.incrementAndGet()));
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsMemoryCache();
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.+");
+
+        new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache, "repositories", false)
+                .resolve(dependency).collect(Collectors.toList());
+        new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache, "repositories", true)
+                .resolve(dependency).collect(Collectors.toList());
+
+        assertEquals(2, resolves.get());
+        // The refreshed result replaces the old result
+        assertEquals(Collections.singletonList(dependency.withVersion("1.0.2")),
+                resolvedVersionsCache.get("repositories", dependency).get());
+    }
+
+    @Test
+    public void resolveAllOnlyResolvesUncachedDependencies() {
+        AtomicInteger resolves = new AtomicInteger();
+        DependencyResolver backingResolver = dependency -> {
+            resolves.incrementAndGet();
+            return Stream.of(dependency.withVersion("1.0.1"));
+        };
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsMemoryCache();
+
+        Dependency dependency1 = new DefaultDependency("be.vbgn.gradle", "test1", "1.0.+");
+        Dependency dependency2 = new DefaultDependency("be.vbgn.gradle", "test2", "1.0.+");
+
+        DependencyResolver resolver = new SuccessCachingDependencyResolver(backingResolver, resolvedVersionsCache,
+                "repositories", false);
+
+        resolver.resolve(dependency1).collect(Collectors.toList());
+        Map<Dependency, List<Dependency>> resolved = resolver.resolveAll(Arrays.asList(dependency1, dependency2));
+
+        assertEquals(Collections.singletonList(dependency1.withVersion("1.0.1")), resolved.get(dependency1));
+        assertEquals(Collections.singletonList(dependency2.withVersion("1.0.1")), resolved.get(dependency2));
+        assertEquals(2, resolves.get());
+    }
+}
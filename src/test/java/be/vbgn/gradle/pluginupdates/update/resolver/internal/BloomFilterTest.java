@@ -0,0 +1,75 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testAddedValuesAreContained() {
+        BloomFilter filter = new BloomFilter();
+        for (int i = 0; i < 1000; i++) {
+            filter.add("be.vbgn.gradle:test:" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("be.vbgn.gradle:test:" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.mightContain("be.vbgn.gradle:other:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 10);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        BloomFilter filter = new BloomFilter();
+        filter.add("be.vbgn.gradle:test:1.0.0");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        filter.writeTo(outputStream);
+        BloomFilter readFilter = BloomFilter.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertTrue(readFilter.mightContain("be.vbgn.gradle:test:1.0.0"));
+        assertFalse(readFilter.mightContain("be.vbgn.gradle:test:2.0.0"));
+    }
+
+    @Test
+    public void testMerge() {
+        BloomFilter filter1 = new BloomFilter();
+        filter1.add("be.vbgn.gradle:test:1.0.0");
+        BloomFilter filter2 = new BloomFilter();
+        filter2.add("be.vbgn.gradle:test:2.0.0");
+
+        assertTrue(filter1.merge(filter2));
+
+        assertTrue(filter1.mightContain("be.vbgn.gradle:test:1.0.0"));
+        assertTrue(filter1.mightContain("be.vbgn.gradle:test:2.0.0"));
+    }
+
+    @Test
+    public void testFillRatio() {
+        BloomFilter filter = new BloomFilter(100_000);
+        assertEquals(0, filter.getFillRatio(), 0);
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("be.vbgn.gradle:test:" + i);
+        }
+        assertTrue("Filter is too full: " + filter.getFillRatio(), filter.getFillRatio() < 0.5);
+    }
+
+    @Test
+    public void testMergeDifferentSize() {
+        BloomFilter filter = new BloomFilter();
+        filter.add("be.vbgn.gradle:test:1.0.0");
+
+        assertFalse(filter.merge(new BloomFilter(100_000)));
+    }
+}
@@ -0,0 +1,94 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InvalidResolvesFileCacheTest extends AbstractResolvesMemoryCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Override
+    protected InvalidResolvesCache createInvalidResolvesCache() {
+        try {
+            return new InvalidResolvesFileCache(tempDir.getRoot());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    public void testCacheExpiry() throws InterruptedException, IOException {
+        long cacheTime = TimeUnit.SECONDS.toMillis(1);
+        InvalidResolvesFileCache invalidResolvesCache = new InvalidResolvesFileCache(tempDir.getRoot(), cacheTime);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        invalidResolvesCache.put(dependency);
+        invalidResolvesCache.flush();
+
+        assertTrue(invalidResolvesCache.get(dependency).isPresent());
+
+        // Wait for cache expire
+        Thread.sleep(cacheTime * 2);
+        assertFalse(invalidResolvesCache.get(dependency).isPresent());
+        assertTrue("Expired failures are not removed by lookups", invalidResolvesCache.keys().contains(
+                TieredInvalidResolvesCache.createKey(dependency)));
+
+        assertTrue(invalidResolvesCache.compactIfDue());
+        assertTrue(invalidResolvesCache.keys().isEmpty());
+        assertFalse("Compaction only runs once per cache time", invalidResolvesCache.compactIfDue());
+        invalidResolvesCache.close();
+    }
+
+    @Test
+    public void testCompactionKeepsFailuresOfLongerCacheTime() throws InterruptedException, IOException {
+        long shortCacheTime = TimeUnit.SECONDS.toMillis(1);
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        try (InvalidResolvesFileCache longCache = new InvalidResolvesFileCache(tempDir.getRoot(),
+                TimeUnit.DAYS.toMillis(1))) {
+            longCache.put(dependency);
+        }
+
+        Thread.sleep(shortCacheTime * 2);
+        try (InvalidResolvesFileCache shortCache = new InvalidResolvesFileCache(tempDir.getRoot(), shortCacheTime)) {
+            assertFalse(shortCache.get(dependency).isPresent());
+            shortCache.compactIfDue();
+        }
+
+        try (InvalidResolvesFileCache longCache = new InvalidResolvesFileCache(tempDir.getRoot(),
+                TimeUnit.DAYS.toMillis(1))) {
+            assertTrue(longCache.get(dependency).isPresent());
+        }
+    }
+
+    @Test
+    public void testBackgroundCompaction() throws InterruptedException, IOException {
+        long cacheTime = TimeUnit.SECONDS.toMillis(1);
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+        try (InvalidResolvesFileCache invalidResolvesCache = new InvalidResolvesFileCache(tempDir.getRoot(),
+                cacheTime)) {
+            invalidResolvesCache.put(dependency);
+        }
+
+        Thread.sleep(cacheTime * 2);
+        try (InvalidResolvesFileCache invalidResolvesCache = new InvalidResolvesFileCache(tempDir.getRoot(),
+                cacheTime)) {
+            invalidResolvesCache.compactInBackground();
+            assertFalse(invalidResolvesCache.get(dependency).isPresent());
+
+            assertTrue("Waits for the background compaction", invalidResolvesCache.compactIfDue());
+            assertTrue(invalidResolvesCache.keys().isEmpty());
+        }
+    }
+}
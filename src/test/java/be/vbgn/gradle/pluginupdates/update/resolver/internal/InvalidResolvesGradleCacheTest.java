@@ -46,4 +46,21 @@ public class InvalidResolvesGradleCacheTest extends AbstractResolvesMemoryCacheT
         Thread.sleep(cacheTime*2);
         assertFalse(invalidResolvesCache.get(dependency).isPresent());
     }
+
+    @Test
+    public void testBufferedWritesArePersisted() throws CacheNotAvailableException {
+        CacheRepository cacheRepository = getCacheRepository();
+        InvalidResolvesGradleCache invalidResolvesCache = new InvalidResolvesGradleCache(cacheRepository);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        invalidResolvesCache.put(dependency);
+        assertTrue("Buffered failure is visible before it is written", invalidResolvesCache.get(dependency).isPresent());
+
+        invalidResolvesCache.close();
+
+        InvalidResolvesCache reopenedCache = new InvalidResolvesGradleCache(cacheRepository);
+        assertTrue("Buffered failure is written when the cache is closed", reopenedCache.get(dependency).isPresent());
+        reopenedCache.close();
+    }
 }
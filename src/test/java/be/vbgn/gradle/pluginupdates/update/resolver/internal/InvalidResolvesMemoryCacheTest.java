@@ -1,9 +1,67 @@
 package be.vbgn.gradle.pluginupdates.update.resolver.internal;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
 public class InvalidResolvesMemoryCacheTest extends AbstractResolvesMemoryCacheTest {
 
     @Override
     protected InvalidResolvesCache createInvalidResolvesCache() {
         return new InvalidResolvesMemoryCache();
     }
+
+    @Test
+    public void testCacheExpiry() throws InterruptedException {
+        long cacheTime = TimeUnit.SECONDS.toMillis(1);
+        InvalidResolvesCache invalidResolvesCache = new InvalidResolvesMemoryCache(cacheTime);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+
+        invalidResolvesCache.put(dependency);
+
+        assertTrue(invalidResolvesCache.get(dependency).isPresent());
+
+        // Wait for cache expire
+        Thread.sleep(cacheTime * 2);
+        assertFalse(invalidResolvesCache.get(dependency).isPresent());
+    }
+
+    @Test
+    public void testMaxEntries() {
+        int maxEntries = 100;
+        InvalidResolvesCache invalidResolvesCache = new InvalidResolvesMemoryCache(TimeUnit.DAYS.toMillis(1),
+                maxEntries);
+
+        for (int i = 0; i < 1000; i++) {
+            invalidResolvesCache.put(new DefaultDependency("be.vbgn.gradle", "test", "1.0." + i));
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (invalidResolvesCache.get(new DefaultDependency("be.vbgn.gradle", "test", "1.0." + i)).isPresent()) {
+                cached++;
+            }
+        }
+        assertTrue("At most " + maxEntries + " entries are kept, got " + cached, cached <= maxEntries);
+        assertTrue("Most recent entries are kept", invalidResolvesCache
+                .get(new DefaultDependency("be.vbgn.gradle", "test", "1.0.999")).isPresent());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        InvalidResolvesCache invalidResolvesCache = new InvalidResolvesMemoryCache(TimeUnit.DAYS.toMillis(1), 1);
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+        Dependency otherDependency = new DefaultDependency("be.vbgn.gradle", "test2", "1.0.0");
+
+        invalidResolvesCache.put(dependency);
+        invalidResolvesCache.put(otherDependency);
+
+        assertTrue("Most recently used entry is kept", invalidResolvesCache.get(otherDependency).isPresent());
+        assertFalse("Least recently used entry is evicted", invalidResolvesCache.get(dependency).isPresent());
+    }
 }
@@ -0,0 +1,177 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedFileStoreTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPutAndGet() throws IOException {
+        try (MappedFileStore store = MappedFileStore.open(new File(tempDir.getRoot(), "store.bin"))) {
+            assertFalse(store.get("a").isPresent());
+
+            store.put("a", bytes("first"));
+            store.put("a", bytes("second"));
+            store.put("b", bytes(""));
+
+            assertArrayEquals(bytes("second"), store.get("a").get().getValue());
+            assertArrayEquals(bytes(""), store.get("b").get().getValue());
+
+            store.remove("a");
+            assertFalse(store.get("a").isPresent());
+            assertTrue(store.get("b").isPresent());
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            store.put("a", bytes("value"));
+            store.put("b", bytes("value"));
+            store.remove("b");
+        }
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            assertArrayEquals(bytes("value"), store.get("a").get().getValue());
+            assertFalse(store.get("b").isPresent());
+        }
+    }
+
+    @Test
+    public void testSharedFile() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (MappedFileStore store1 = MappedFileStore.open(file);
+                MappedFileStore store2 = MappedFileStore.open(file)) {
+            store1.put("a", bytes("first"));
+            assertArrayEquals(bytes("first"), store2.get("a").get().getValue());
+
+            store2.put("a", bytes("second"));
+            assertArrayEquals(bytes("second"), store1.get("a").get().getValue());
+        }
+    }
+
+    @Test
+    public void testGrowingFile() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        byte[] value = new byte[10 * 1024];
+        try (MappedFileStore store1 = MappedFileStore.open(file);
+                MappedFileStore store2 = MappedFileStore.open(file)) {
+            // Grows the file well past the size after which it is mapped again
+            for (int i = 0; i < 300; i++) {
+                value[0] = (byte) i;
+                store1.put("key" + i, value);
+                assertEquals((byte) i, store1.get("key" + i).get().getValue()[0]);
+                assertEquals((byte) i, store2.get("key" + i).get().getValue()[0]);
+            }
+            for (int i = 0; i < 300; i++) {
+                assertEquals((byte) i, store1.get("key" + i).get().getValue()[0]);
+                assertEquals(value.length, store2.get("key" + i).get().getValue().length);
+            }
+        }
+    }
+
+    @Test
+    public void testPartialRecordIsIgnored() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            store.put("a", bytes("value"));
+        }
+        long size = file.length();
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            store.put("b", bytes("value"));
+        }
+        // Simulate a write that was interrupted halfway
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(file.length() - 3);
+        }
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            assertTrue(store.get("a").isPresent());
+            assertFalse(store.get("b").isPresent());
+
+            store.put("c", bytes("value"));
+            assertTrue(file.length() > size);
+            assertArrayEquals(bytes("value"), store.get("c").get().getValue());
+        }
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            assertTrue(store.get("a").isPresent());
+            assertFalse(store.get("b").isPresent());
+            assertTrue(store.get("c").isPresent());
+        }
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (MappedFileStore store1 = MappedFileStore.open(file);
+                MappedFileStore store2 = MappedFileStore.open(file)) {
+            store1.put("keep", bytes("value"));
+            store1.put("drop", bytes("value"));
+            store1.put("drop", bytes("other"));
+            long size = file.length();
+
+            assertTrue(store1.compact(record -> new String(record.getValue(), StandardCharsets.UTF_8).equals("value")));
+            assertTrue(file.length() < size);
+            assertTrue(store1.get("keep").isPresent());
+            assertFalse(store1.get("drop").isPresent());
+
+            // The other store still has the replaced file open, and switches to the compacted file
+            assertFalse(store2.get("drop").isPresent());
+            store2.put("new", bytes("value"));
+            assertTrue(store1.get("new").isPresent());
+        }
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            assertEquals(2, store.keys().size());
+        }
+    }
+
+    @Test
+    public void testExpiredRecordsAreCompacted() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (MappedFileStore store = MappedFileStore.open(file)) {
+            store.put("expired", bytes("value"), 1000);
+            store.put("valid", bytes("value"), 3000);
+            store.put("forever", bytes("value"));
+            assertEquals(3000, store.get("valid").get().getExpiresAt());
+
+            assertTrue(store.compact(record -> !record.isExpired(2000)));
+            assertFalse(store.get("expired").isPresent());
+            assertEquals(3000, store.get("valid").get().getExpiresAt());
+            assertEquals(Long.MAX_VALUE, store.get("forever").get().getExpiresAt());
+        }
+    }
+
+    @Test
+    public void testUnknownFormatIsNotChanged() throws IOException {
+        File file = new File(tempDir.getRoot(), "store.bin");
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.writeInt(0x50555301);
+            randomAccessFile.writeLong(0);
+            randomAccessFile.writeLong(0);
+        }
+        long size = file.length();
+        try {
+            MappedFileStore.open(file).close();
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertEquals(size, file.length());
+        }
+    }
+}
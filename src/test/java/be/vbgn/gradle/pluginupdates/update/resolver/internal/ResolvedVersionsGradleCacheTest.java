@@ -0,0 +1,63 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.cache.CacheRepository;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResolvedVersionsGradleCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    private CacheRepository getCacheRepository() {
+        Project project = ProjectBuilder.builder()
+                .withGradleUserHomeDir(tempDir.getRoot())
+                .build();
+        return ((ProjectInternal) project).getServices().get(CacheRepository.class);
+    }
+
+    @Test
+    public void testCacheBehavior() throws CacheNotAvailableException {
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsGradleCache(getCacheRepository());
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.+");
+        List<Dependency> resolved = Collections.singletonList(dependency.withVersion("1.2.3"));
+
+        assertFalse(resolvedVersionsCache.get("repositories", dependency).isPresent());
+
+        resolvedVersionsCache.put("repositories", dependency, resolved);
+
+        assertEquals(resolved, resolvedVersionsCache.get("repositories", dependency).get());
+        assertFalse(resolvedVersionsCache.get("otherRepositories", dependency).isPresent());
+    }
+
+    @Test
+    public void testCacheExpiry() throws InterruptedException, CacheNotAvailableException {
+        long cacheTime = TimeUnit.SECONDS.toMillis(1);
+        ResolvedVersionsCache resolvedVersionsCache = new ResolvedVersionsGradleCache(getCacheRepository(),
+                cacheTime);
+
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.+");
+
+        resolvedVersionsCache.put("repositories", dependency, Collections.singletonList(dependency.withVersion("1.0")));
+
+        assertTrue(resolvedVersionsCache.get("repositories", dependency).isPresent());
+
+        // Wait for cache expire
+        Thread.sleep(cacheTime * 2);
+        assertFalse(resolvedVersionsCache.get("repositories", dependency).isPresent());
+    }
+}
@@ -0,0 +1,85 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShardedFileStoreTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Test
+    public void testKeysAreSpreadOverShards() throws IOException {
+        Map<String, byte[]> values = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            values.put("group" + i + ":name:1.0.0", "value".getBytes(StandardCharsets.UTF_8));
+        }
+        try (ShardedFileStore store = ShardedFileStore.open(tempDir.getRoot(), "store", 4)) {
+            store.putAll(values, Long.MAX_VALUE);
+        }
+
+        int usedShards = 0;
+        for (int i = 0; i < 4; i++) {
+            File shardFile = ShardedFileStore.shardFile(tempDir.getRoot(), "store", i);
+            try (MappedFileStore shard = MappedFileStore.open(shardFile)) {
+                if (!shard.keys().isEmpty()) {
+                    usedShards++;
+                }
+            }
+        }
+        assertEquals(4, usedShards);
+
+        try (ShardedFileStore store = ShardedFileStore.open(tempDir.getRoot(), "store", 4)) {
+            assertEquals(values.keySet(), store.keys());
+            store.remove("group1:name:1.0.0");
+            assertFalse(store.get("group1:name:1.0.0").isPresent());
+            assertTrue(store.get("group2:name:1.0.0").isPresent());
+        }
+    }
+
+    @Test
+    public void testModuleGroupIsInSameShard() throws IOException {
+        try (ShardedFileStore store = ShardedFileStore.open(tempDir.getRoot(), "store", 4)) {
+            store.put("be.vbgn.gradle:a:1.0.0", new byte[0]);
+            store.put("be.vbgn.gradle:b:1.0.0", new byte[0]);
+        }
+        int usedShards = 0;
+        for (int i = 0; i < 4; i++) {
+            File shardFile = ShardedFileStore.shardFile(tempDir.getRoot(), "store", i);
+            try (MappedFileStore shard = MappedFileStore.open(shardFile)) {
+                if (!shard.keys().isEmpty()) {
+                    assertEquals(2, shard.keys().size());
+                    usedShards++;
+                }
+            }
+        }
+        assertEquals(1, usedShards);
+    }
+
+    @Test
+    public void testLegacyFilesAreRemovedOnce() throws IOException {
+        File unsharded = new File(tempDir.getRoot(), "store.bin");
+        File unversioned = new File(tempDir.getRoot(), "store-0.bin");
+        assertTrue(unsharded.createNewFile());
+        assertTrue(unversioned.createNewFile());
+
+        ShardedFileStore.open(tempDir.getRoot(), "store", 4).close();
+        assertFalse(unsharded.exists());
+        assertFalse(unversioned.exists());
+
+        // An older version of the plugin creates its file again
+        assertTrue(unversioned.createNewFile());
+        ShardedFileStore.open(tempDir.getRoot(), "store", 4).close();
+        assertTrue(unversioned.exists());
+    }
+}
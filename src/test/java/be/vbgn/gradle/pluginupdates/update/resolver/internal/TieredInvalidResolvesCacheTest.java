@@ -0,0 +1,104 @@
+package be.vbgn.gradle.pluginupdates.update.resolver.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import be.vbgn.gradle.pluginupdates.dependency.DefaultDependency;
+import be.vbgn.gradle.pluginupdates.dependency.Dependency;
+import be.vbgn.gradle.pluginupdates.dependency.FailedDependency;
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TieredInvalidResolvesCacheTest extends AbstractResolvesMemoryCacheTest {
+
+    @Rule
+    public TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Override
+    protected InvalidResolvesCache createInvalidResolvesCache() {
+        return new TieredInvalidResolvesCache(new InvalidResolvesMemoryCache(),
+                new File(tempDir.getRoot(), "filter.bloom"), Collections::emptySet);
+    }
+
+    private static class CountingInvalidResolvesCache extends InvalidResolvesMemoryCache {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Optional<FailedDependency> get(Dependency dependency) {
+            lookups.incrementAndGet();
+            return super.get(dependency);
+        }
+    }
+
+    @Test
+    public void testNegativeLookupsSkipPersistentCache() {
+        CountingInvalidResolvesCache persistentCache = new CountingInvalidResolvesCache();
+        InvalidResolvesCache cache = new TieredInvalidResolvesCache(persistentCache,
+                new File(tempDir.getRoot(), "filter.bloom"), Collections::emptySet);
+
+        assertFalse(cache.get(new DefaultDependency("be.vbgn.gradle", "test", "1.0.0")).isPresent());
+        assertEquals(0, persistentCache.lookups.get());
+    }
+
+    @Test
+    public void testFilterIsBuiltFromPersistentKeys() {
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+        CountingInvalidResolvesCache persistentCache = new CountingInvalidResolvesCache();
+        persistentCache.put(dependency);
+        InvalidResolvesCache cache = new TieredInvalidResolvesCache(persistentCache,
+                new File(tempDir.getRoot(), "filter.bloom"),
+                () -> Collections.singleton(TieredInvalidResolvesCache.createKey(dependency)));
+
+        assertTrue(cache.get(dependency).isPresent());
+        assertTrue(cache.get(dependency).isPresent());
+        assertEquals("Persistent lookups are remembered", 1, persistentCache.lookups.get());
+    }
+
+    @Test
+    public void testFilterIsStored() {
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+        File filterFile = new File(tempDir.getRoot(), "filter.bloom");
+        CountingInvalidResolvesCache persistentCache = new CountingInvalidResolvesCache();
+
+        InvalidResolvesCache cache = new TieredInvalidResolvesCache(persistentCache, filterFile,
+                Collections::emptySet);
+        cache.put(dependency);
+        cache.close();
+        assertTrue(filterFile.exists());
+
+        InvalidResolvesCache reopenedCache = new TieredInvalidResolvesCache(persistentCache, filterFile, () -> {
+            throw new AssertionError("Stored filter is used");
+        });
+        assertTrue(reopenedCache.get(dependency).isPresent());
+        assertEquals(1, persistentCache.lookups.get());
+    }
+
+    @Test
+    public void testFilterIsBuiltAgainAfterCompaction() {
+        Dependency dependency = new DefaultDependency("be.vbgn.gradle", "test", "1.0.0");
+        File filterFile = new File(tempDir.getRoot(), "filter.bloom");
+        CountingInvalidResolvesCache persistentCache = new CountingInvalidResolvesCache();
+
+        InvalidResolvesCache cache = new TieredInvalidResolvesCache(persistentCache, filterFile,
+                Collections::emptySet, () -> false);
+        cache.put(dependency);
+        cache.close();
+
+        // The failure has been removed from the persistent cache by compaction
+        InvalidResolvesCache compactingCache = new TieredInvalidResolvesCache(persistentCache, filterFile,
+                Collections::emptySet, () -> true);
+        compactingCache.close();
+
+        InvalidResolvesCache reopenedCache = new TieredInvalidResolvesCache(persistentCache, filterFile,
+                Collections::emptySet);
+        assertFalse(reopenedCache.get(dependency).isPresent());
+        assertEquals("Removed failures are not in the filter", 0, persistentCache.lookups.get());
+    }
+}
@@ -0,0 +1,69 @@
+package be.vbgn.gradle.pluginupdates.update.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class UpdateCheckSessionTest {
+
+    private static class CountingResource implements AutoCloseable {
+
+        private final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+
+    @Test
+    public void resourcesAreShared() {
+        UpdateCheckSession session = new UpdateCheckSession();
+        CountingResource resource = session.getResource("resource", CountingResource::new);
+
+        assertSame(resource, session.getResource("resource", CountingResource::new));
+        assertNotSame(resource, session.getResource("otherResource", CountingResource::new));
+    }
+
+    @Test
+    public void resourcesAreClosedWithSession() {
+        UpdateCheckSession session = new UpdateCheckSession();
+        CountingResource resource = session.getResource("resource", CountingResource::new);
+        session.getResource("failingResource", () -> () -> {
+            throw new Exception("Resource can not be closed");
+        });
+
+        session.close();
+
+        assertEquals(1, resource.closed.get());
+        assertNotSame("A new resource is created after the session is closed", resource,
+                session.getResource("resource", CountingResource::new));
+    }
+
+    @Test
+    public void backgroundWorkIsStoppedWithSession() throws InterruptedException {
+        UpdateCheckSession session = new UpdateCheckSession();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        session.getBackgroundExecutor().execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        session.close();
+
+        assertTrue("Background work is interrupted when the session is closed",
+                interrupted.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -3,6 +3,7 @@ package be.vbgn.gradle.pluginupdates.version;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
@@ -148,6 +149,25 @@ public class NumberWildcardTest {
 
     }
 
+    @Test
+    public void sortKeyOrdersLikeCompareTo() {
+        List<NumberWildcard> numbers = new LinkedList<>();
+        numbers.add(NumberWildcard.empty());
+        numbers.add(NumberWildcard.wildcard());
+        numbers.add(NumberWildcard.number(0));
+        numbers.add(NumberWildcard.number(0).withWildcard());
+        numbers.add(NumberWildcard.number(3));
+        numbers.add(NumberWildcard.number(Integer.MAX_VALUE));
+        numbers.add(NumberWildcard.number(Integer.MAX_VALUE).withWildcard());
+
+        for (NumberWildcard a : numbers) {
+            for (NumberWildcard b : numbers) {
+                assertEquals(a + " <=> " + b, Integer.signum(a.compareTo(b)),
+                        Long.signum(Long.compare(a.sortKey(), b.sortKey())));
+            }
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void negativeNumber() {
         NumberWildcard.number(-3);
@@ -163,4 +183,11 @@ public class NumberWildcardTest {
         NumberWildcard.empty().getNumberComponent();
     }
 
+    @Test
+    public void sharedInstances() {
+        assertSame(NumberWildcard.number(5), NumberWildcard.empty().withNumberComponent(5));
+        assertSame(NumberWildcard.number(5).withWildcard(), NumberWildcard.wildcard().withNumberComponent(5));
+        assertSame(NumberWildcard.wildcard(), NumberWildcard.number(5).withWildcard().withoutNumberComponent());
+        assertEquals(NumberWildcard.number(100000), NumberWildcard.number(100000));
+    }
 }
@@ -0,0 +1,63 @@
+package be.vbgn.gradle.pluginupdates.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class QualifierTypeTest {
+
+    private static void assertClassified(QualifierType expected, String... qualifiers) {
+        for (String qualifier : qualifiers) {
+            assertEquals("Qualifier " + qualifier, expected, QualifierType.classify(qualifier));
+        }
+    }
+
+    @Test
+    public void stable() {
+        assertClassified(QualifierType.STABLE, "", "Final", "RELEASE", "GA", "jre", "android", "SP1", "v20200101",
+                "abc", "description");
+    }
+
+    @Test
+    public void releaseCandidate() {
+        assertClassified(QualifierType.RC, "RC", "rc1", "RC.2", "CR1", "pre", "preview-3");
+    }
+
+    @Test
+    public void milestone() {
+        assertClassified(QualifierType.MILESTONE, "M1", "m.2", "milestone", "MILESTONE-3");
+    }
+
+    @Test
+    public void beta() {
+        assertClassified(QualifierType.BETA, "beta", "BETA2", "b1", "beta.3", "1-beta");
+    }
+
+    @Test
+    public void alpha() {
+        assertClassified(QualifierType.ALPHA, "alpha", "Alpha1", "a2", "ea", "dev", "alpha+1");
+    }
+
+    @Test
+    public void snapshot() {
+        assertClassified(QualifierType.SNAPSHOT, "SNAPSHOT", "rc1-SNAPSHOT", "nightly", "alpha-snapshot");
+    }
+
+    @Test
+    public void classifyIsCached() {
+        assertEquals(QualifierType.RC, QualifierType.classify("rc1"));
+        assertEquals(QualifierType.RC, QualifierType.classify("rc1"));
+    }
+
+    @Test
+    public void isStable() {
+        assertTrue(Version.parse("1.2.3").isStable());
+        assertTrue(Version.parse("1.2.3-jre").isStable());
+        assertFalse(Version.parse("1.2.3-RC1").isStable());
+        assertFalse(Version.parse("1.2.3.4-SNAPSHOT").isStable());
+        assertFalse(Version.parse("1.0-alpha+1").isStable());
+        assertEquals(QualifierType.MILESTONE, Version.parse("5.0.0.M3").getQualifierType());
+    }
+}
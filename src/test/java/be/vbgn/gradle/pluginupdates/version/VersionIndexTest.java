@@ -0,0 +1,142 @@
+package be.vbgn.gradle.pluginupdates.version;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class VersionIndexTest {
+
+    private static final List<Version> VERSIONS = Collections.unmodifiableList(Arrays.asList(
+            Version.parse("1.0"),
+            Version.parse("1.0.0"),
+            Version.parse("1.0.1"),
+            Version.parse("1.0.1-SNAPSHOT"),
+            Version.parse("1.1.0-rc1"),
+            Version.parse("1.1.0-RC1"),
+            Version.parse("1.2.0.1"),
+            Version.parse("1.2.0.2-beta"),
+            Version.parse("1.2.0.5-beta"),
+            Version.parse("1.2.3"),
+            Version.parse("1.10"),
+            Version.parse("1.+"),
+            Version.parse("1.3+"),
+            Version.parse("2.0-alpha"),
+            Version.parse("2147483647.1"),
+            Version.parse("2021.1"),
+            Version.parse("3"),
+            Version.parse("final"),
+            Version.parse("")
+    ));
+
+    private static final List<Version> CONSTRAINTS = Arrays.asList(
+            Version.parse("+"),
+            Version.parse("1+"),
+            Version.parse("2+"),
+            Version.parse("4+"),
+            Version.parse("1.+"),
+            Version.parse("1.1+"),
+            Version.parse("1.3+"),
+            Version.parse("1.4+"),
+            Version.parse("1.0.+"),
+            Version.parse("1.2.+"),
+            Version.parse("1.2.0.+"),
+            Version.parse("1.2.0.2+"),
+            Version.parse("1.2.3.+"),
+            Version.parse("5.+"),
+            Version.parse("1.0"),
+            Version.parse("1.1.0-rc1"),
+            Version.parse("1.1.0-Rc1"),
+            Version.parse("final"),
+            Version.parse("")
+    );
+
+    private static Optional<Version> findHighestMatchingByStream(List<Version> versions, Version constraint) {
+        return versions.stream()
+                .filter(constraint::matches)
+                .max(Comparator.naturalOrder());
+    }
+
+    @Test
+    public void findHighestMatching() {
+        VersionIndex index = VersionIndex.of(VERSIONS);
+
+        assertEquals(Optional.of(Version.parse("2147483647.1")), index.findHighestMatching(Version.parse("+")));
+        assertEquals(Optional.of(Version.parse("1.3+")), index.findHighestMatching(Version.parse("1.+")));
+        assertEquals(Optional.of(Version.parse("1.0.1")), index.findHighestMatching(Version.parse("1.0.+")));
+        // A wildcard in the PATCH component does not match qualified versions
+        assertEquals(Optional.of(Version.parse("1.2.0.1")), index.findHighestMatching(Version.parse("1.2.0.+")));
+        assertFalse(index.findHighestMatching(Version.parse("1.2.0.2+")).isPresent());
+        assertFalse(index.findHighestMatching(Version.parse("5.+")).isPresent());
+    }
+
+    @Test
+    public void findHighestMatchingLikeMatches() {
+        VersionIndex index = VersionIndex.of(VERSIONS);
+
+        for (Version constraint : CONSTRAINTS) {
+            Optional<Version> expected = findHighestMatchingByStream(VERSIONS, constraint);
+            Optional<Version> actual = index.findHighestMatching(constraint);
+            assertEquals("Highest version matching " + constraint, expected, actual);
+            if (expected.isPresent()) {
+                assertSame("Same instance for " + constraint, expected.get(), actual.get());
+            }
+        }
+    }
+
+    @Test
+    public void findHighestMatchingKeepsFirstOfEqualVersions() {
+        VersionIndex index = VersionIndex.of(VERSIONS);
+
+        assertSame(VERSIONS.get(4), index.findHighestMatching(Version.parse("1.1.+")).get());
+        assertSame(VERSIONS.get(5), index.findHighestMatching(Version.parse("1.1.0-RC1")).get());
+    }
+
+    @Test
+    public void findNewerThan() {
+        VersionIndex index = VersionIndex.of(VERSIONS);
+
+        for (Version version : VERSIONS) {
+            List<Version> expected = VERSIONS.stream()
+                    .filter(other -> other.compareTo(version) > 0)
+                    .sorted()
+                    .collect(Collectors.toList());
+            assertEquals("Versions newer than " + version, expected, index.findNewerThan(version));
+        }
+        assertEquals(Collections.emptyList(), index.findNewerThan(Version.parse("+")));
+    }
+
+    @Test
+    public void getVersionsIsSorted() {
+        VersionIndex index = VersionIndex.of(VERSIONS);
+
+        assertEquals(VERSIONS.stream().sorted().collect(Collectors.toList()), index.getVersions());
+    }
+
+    @Test
+    public void emptyIndex() {
+        VersionIndex index = VersionIndex.of(Collections.emptyList());
+
+        assertFalse(index.findHighestMatching(Version.parse("+")).isPresent());
+        assertFalse(index.findHighestMatching(Version.parse("1.0")).isPresent());
+        assertEquals(Collections.emptyList(), index.findNewerThan(Version.parse("1.0")));
+    }
+
+    @Test
+    public void onlyStable() {
+        VersionIndex index = VersionIndex.of(VERSIONS).onlyStable();
+
+        assertEquals(VERSIONS.stream().filter(Version::isStable).sorted().collect(Collectors.toList()),
+                index.getVersions());
+        assertEquals(Optional.of(Version.parse("1.0.1")), index.findHighestMatching(Version.parse("1.0.+")));
+        assertFalse(index.findHighestMatching(Version.parse("1.1.+")).isPresent());
+        assertSame(index, index.onlyStable());
+    }
+}
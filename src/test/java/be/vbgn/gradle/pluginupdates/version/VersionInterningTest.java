@@ -0,0 +1,23 @@
+package be.vbgn.gradle.pluginupdates.version;
+
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Checks that parsing a version number that has been parsed before does not create a new version
+ */
+public class VersionInterningTest {
+
+    @Test
+    public void repeatedParseReturnsSameInstance() {
+        for (int i = 0; i < 500; i++) {
+            String version = i % 10 + "." + i % 50 + "." + i + (i % 3 == 0 ? "-SNAPSHOT" : "");
+            Version parsed = Version.parse(version);
+            // A different string instance with the same contents, like a version read from another file
+            Version parsedAgain = Version.parse(new String(version.toCharArray()));
+
+            assertSame("Version " + version + " is shared", parsed, parsedAgain);
+        }
+    }
+}
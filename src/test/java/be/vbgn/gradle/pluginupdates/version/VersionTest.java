@@ -3,8 +3,14 @@ package be.vbgn.gradle.pluginupdates.version;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -195,4 +201,55 @@ public class VersionTest {
         assertArrayEquals(toSort.toArray(), sortedCollection.toArray());
     }
 
+    @Test
+    public void parseReturnsSharedInstance() {
+        assertSame(Version.parse("1.2.3-SNAPSHOT"), Version.parse("1.2.3-SNAPSHOT"));
+        assertSame(Version.parse("1.2.3").getMajor(), Version.parse("1.4.5").getMajor());
+    }
+
+    @Test
+    public void hashCodeIgnoresQualifierCase() {
+        assertEquals(Version.parse("1.2.3-SNAPSHOT"), Version.parse("1.2.3-snapshot"));
+        assertEquals(Version.parse("1.2.3-SNAPSHOT").hashCode(), Version.parse("1.2.3-snapshot").hashCode());
+    }
+
+    @Test
+    public void parseLargeNumbers() {
+        assertEquals("2021010100.0.1", Version.parse("2021010100.0.1").toString());
+    }
+
+    @Test
+    public void compareToLargeNumbers() {
+        assertTrue(Version.parse("2147483647").compareTo(Version.parse("0")) > 0);
+        assertTrue(Version.parse("1.0").compareTo(Version.parse("1.2147483647")) < 0);
+        assertTrue(Version.parse("1.2147483647").compareTo(Version.parse("1.+")) < 0);
+    }
+
+    @Test
+    public void compareToQualifierIgnoresCase() {
+        assertEquals(0, Version.parse("1.0-RC1").compareTo(Version.parse("1.0-rc1")));
+        assertTrue(Version.parse("1.0-Alpha").compareTo(Version.parse("1.0-beta")) < 0);
+        assertTrue(Version.parse("1.0-beta").compareTo(Version.parse("1.0-ALPHA")) > 0);
+        assertEquals(Integer.signum("beta".compareToIgnoreCase("_final")),
+                Integer.signum(Version.parse("1.0-BETA").compareTo(Version.parse("1.0-_final"))));
+        assertTrue(Version.parse("1.0-beta").compareTo(Version.parse("1.0")) < 0);
+    }
+
+    @Test
+    public void serializedVersionCompares() throws IOException, ClassNotFoundException {
+        Version version = Version.parse("1.2.3-SNAPSHOT");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+            outputStream.writeObject(version);
+        }
+        Version deserialized;
+        try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (Version) inputStream.readObject();
+        }
+
+        assertEquals(version, deserialized);
+        assertEquals(version.hashCode(), deserialized.hashCode());
+        assertEquals(0, deserialized.compareTo(Version.parse("1.2.3-snapshot")));
+        assertTrue(deserialized.compareTo(Version.parse("1.2.3")) < 0);
+    }
 }